@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.autocomplete;
+
+public enum AutocompleteField {
+    FIRST_NAME,
+    LAST_NAME,
+    POSITION
+}
@@ -0,0 +1,163 @@
+package org.javacode.employee_accounting.autocomplete;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.javacode.employee_accounting.model.dto.response.AutocompleteSuggestionDto;
+import org.javacode.employee_accounting.model.projections.EmployeeNameProjection;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Индекс подсказок по именам, фамилиям и должностям сотрудников.
+ * Строится из БД при старте и обновляется сервисами при создании, изменении и удалении.
+ */
+@Component
+public class EmployeeAutocompleteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeAutocompleteIndex.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final double[] weights;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private PrefixTrie trie;
+    // Изменения, применённые во время перестроения: повторяются на новом дереве перед подменой
+    private List<Consumer<PrefixTrie>> pending;
+
+    public EmployeeAutocompleteIndex(EmployeeRepository employeeRepository,
+                                     @Value("${employee.autocomplete.weights.first-name:1.0}") double firstNameWeight,
+                                     @Value("${employee.autocomplete.weights.last-name:1.0}") double lastNameWeight,
+                                     @Value("${employee.autocomplete.weights.position:0.5}") double positionWeight,
+                                     MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.weights = new double[AutocompleteField.values().length];
+        this.weights[AutocompleteField.FIRST_NAME.ordinal()] = firstNameWeight;
+        this.weights[AutocompleteField.LAST_NAME.ordinal()] = lastNameWeight;
+        this.weights[AutocompleteField.POSITION.ordinal()] = positionWeight;
+        this.trie = new PrefixTrie(weights);
+        gauge(meterRegistry, "employee.autocomplete.terms", PrefixTrie::terms);
+        gauge(meterRegistry, "employee.autocomplete.nodes", PrefixTrie::nodes);
+        gauge(meterRegistry, "employee.autocomplete.estimated-bytes", PrefixTrie::estimatedBytes);
+    }
+
+    // Новое дерево строится без блокировки и подменяет старое целиком
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        PrefixTrie rebuilt = new PrefixTrie(weights);
+        long[] names = {0};
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean streamed = false;
+        try (Stream<EmployeeNameProjection> employees = employeeRepository.streamAllNames()) {
+            employees.forEach(employee -> {
+                rebuilt.add(employee.getFirstName(), AutocompleteField.FIRST_NAME);
+                rebuilt.add(employee.getLastName(), AutocompleteField.LAST_NAME);
+                rebuilt.add(employee.getPosition(), AutocompleteField.POSITION);
+                names[0] += 3;
+            });
+            streamed = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (streamed) {
+                    pending.forEach(change -> change.accept(rebuilt));
+                    trie = rebuilt;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        long bytes = rebuilt.estimatedBytes();
+        logger.info(String.format("Autocomplete index built in %d ms: %d names, %d terms, %d nodes, ~%d bytes (~%d MB per million names)",
+                (System.nanoTime() - started) / 1_000_000, names[0], rebuilt.terms(), rebuilt.nodes(), bytes,
+                names[0] == 0 ? 0 : bytes * 1_000_000 / names[0] / (1024 * 1024)));
+    }
+
+    public List<AutocompleteSuggestionDto> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return trie.top(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String firstName, String lastName, String position) {
+        afterCommit(() -> change(firstName, lastName, position, true));
+    }
+
+    public void remove(String firstName, String lastName, String position) {
+        afterCommit(() -> change(firstName, lastName, position, false));
+    }
+
+    private void change(String firstName, String lastName, String position, boolean add) {
+        Consumer<PrefixTrie> change = target -> {
+            if (add) {
+                target.add(firstName, AutocompleteField.FIRST_NAME);
+                target.add(lastName, AutocompleteField.LAST_NAME);
+                target.add(position, AutocompleteField.POSITION);
+            } else {
+                target.remove(firstName, AutocompleteField.FIRST_NAME);
+                target.remove(lastName, AutocompleteField.LAST_NAME);
+                target.remove(position, AutocompleteField.POSITION);
+            }
+        };
+        lock.writeLock().lock();
+        try {
+            change.accept(trie);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Изменения из откатившейся транзакции в индекс не попадают
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, ToDoubleFunction<PrefixTrie> value) {
+        Gauge.builder(name, this, index -> {
+            index.lock.readLock().lock();
+            try {
+                return value.applyAsDouble(index.trie);
+            } finally {
+                index.lock.readLock().unlock();
+            }
+        }).register(meterRegistry);
+    }
+}
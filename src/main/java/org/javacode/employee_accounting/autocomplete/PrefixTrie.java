@@ -0,0 +1,293 @@
+package org.javacode.employee_accounting.autocomplete;
+
+import org.javacode.employee_accounting.model.dto.response.AutocompleteSuggestionDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Сжатое префиксное дерево (radix trie): цепочки узлов с одним потомком склеены в одну метку.
+ * Терминальный узел хранит число вхождений слова по каждому полю, его вес - сумма вхождений,
+ * умноженных на вес поля. Каждый узел помнит максимальный вес в своём поддереве,
+ * поэтому top-N выбирается обходом по убыванию веса без просмотра всего поддерева.
+ * <p>
+ * Не потокобезопасно, синхронизация на стороне {@link EmployeeAutocompleteIndex}.
+ */
+class PrefixTrie {
+
+    private static final AutocompleteField[] FIELDS = AutocompleteField.values();
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final double[] weights;
+    private final Node root = new Node("");
+    private int terms;
+    private int nodes = 1;
+
+    PrefixTrie(double[] weights) {
+        this.weights = weights.clone();
+    }
+
+    void add(String text, AutocompleteField field) {
+        change(text, field, 1);
+    }
+
+    void remove(String text, AutocompleteField field) {
+        change(text, field, -1);
+    }
+
+    List<AutocompleteSuggestionDto> top(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = Arrays.binarySearch(node.keys, key.charAt(i));
+            if (index < 0) {
+                return List.of();
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            // Префикс может закончиться посреди метки - тогда подходит всё поддерево потомка
+            if (common < child.label.length() && i + common < key.length()) {
+                return List.of();
+            }
+            node = child;
+            i += common;
+        }
+
+        List<AutocompleteSuggestionDto> result = new ArrayList<>(limit);
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingDouble(Candidate::priority).reversed());
+        queue.add(new Candidate(node, node.maxScore, false));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            Node current = candidate.node();
+            if (candidate.terminal()) {
+                result.add(new AutocompleteSuggestionDto(current.text, current.score, fields(current)));
+                continue;
+            }
+            if (current.counts != null) {
+                queue.add(new Candidate(current, current.score, true));
+            }
+            for (Node child : current.children) {
+                queue.add(new Candidate(child, child.maxScore, false));
+            }
+        }
+        return result;
+    }
+
+    int terms() {
+        return terms;
+    }
+
+    int nodes() {
+        return nodes;
+    }
+
+    /**
+     * Оценка занимаемой памяти для 64-битной JVM со сжатыми указателями.
+     */
+    long estimatedBytes() {
+        long bytes = 0;
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            // Заголовок и поля узла, метка, массивы ключей и потомков
+            bytes += 48 + stringBytes(node.label);
+            if (node.children.length > 0) {
+                bytes += 16 + align(2L * node.keys.length) + 16 + align(4L * node.children.length);
+            }
+            if (node.counts != null) {
+                bytes += 16 + align(4L * node.counts.length) + stringBytes(node.text);
+            }
+            stack.addAll(Arrays.asList(node.children));
+        }
+        return bytes;
+    }
+
+    private void change(String text, AutocompleteField field, int delta) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String key = normalize(text);
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = Arrays.binarySearch(node.keys, key.charAt(i));
+            if (index < 0) {
+                if (delta < 0) {
+                    return;
+                }
+                Node leaf = new Node(key.substring(i));
+                insertChild(node, -index - 1, leaf);
+                nodes++;
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                if (delta < 0) {
+                    return;
+                }
+                // Разрезаем метку: общая часть становится новым промежуточным узлом
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.keys = new char[]{child.label.charAt(0)};
+                middle.children = new Node[]{child};
+                middle.maxScore = child.maxScore;
+                node.children[index] = middle;
+                nodes++;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+
+        if (node.counts == null) {
+            if (delta < 0) {
+                return;
+            }
+            node.counts = new int[FIELDS.length];
+            node.text = text.strip();
+            terms++;
+        }
+        node.counts[field.ordinal()] = Math.max(0, node.counts[field.ordinal()] + delta);
+        node.score = score(node.counts);
+        if (Arrays.stream(node.counts).allMatch(count -> count == 0)) {
+            node.counts = null;
+            node.text = null;
+            terms--;
+        }
+
+        // Снизу вверх: удаляем пустые листья, склеиваем узлы с одним потомком, пересчитываем максимум
+        for (int j = path.size() - 1; j > 0; j--) {
+            Node current = path.get(j);
+            Node parent = path.get(j - 1);
+            if (current.counts == null && current.children.length == 0) {
+                removeChild(parent, current);
+                nodes--;
+                continue;
+            }
+            if (current.counts == null && current.children.length == 1) {
+                Node only = current.children[0];
+                current.label = current.label + only.label;
+                current.keys = only.keys;
+                current.children = only.children;
+                current.counts = only.counts;
+                current.text = only.text;
+                current.score = only.score;
+                nodes--;
+            }
+            updateMaxScore(current);
+        }
+        updateMaxScore(root);
+    }
+
+    private double score(int[] counts) {
+        double score = 0;
+        for (int i = 0; i < counts.length; i++) {
+            score += counts[i] * weights[i];
+        }
+        return score;
+    }
+
+    private static Set<AutocompleteField> fields(Node node) {
+        Set<AutocompleteField> fields = EnumSet.noneOf(AutocompleteField.class);
+        for (AutocompleteField field : FIELDS) {
+            if (node.counts[field.ordinal()] > 0) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static void updateMaxScore(Node node) {
+        double max = node.counts == null ? 0 : node.score;
+        for (Node child : node.children) {
+            max = Math.max(max, child.maxScore);
+        }
+        node.maxScore = max;
+    }
+
+    private static void insertChild(Node parent, int position, Node child) {
+        char[] keys = new char[parent.keys.length + 1];
+        Node[] children = new Node[parent.children.length + 1];
+        System.arraycopy(parent.keys, 0, keys, 0, position);
+        System.arraycopy(parent.children, 0, children, 0, position);
+        keys[position] = child.label.charAt(0);
+        children[position] = child;
+        System.arraycopy(parent.keys, position, keys, position + 1, parent.keys.length - position);
+        System.arraycopy(parent.children, position, children, position + 1, parent.children.length - position);
+        parent.keys = keys;
+        parent.children = children;
+    }
+
+    private static void removeChild(Node parent, Node child) {
+        int position = Arrays.binarySearch(parent.keys, child.label.charAt(0));
+        if (parent.keys.length == 1) {
+            parent.keys = NO_KEYS;
+            parent.children = NO_CHILDREN;
+            return;
+        }
+        char[] keys = new char[parent.keys.length - 1];
+        Node[] children = new Node[parent.children.length - 1];
+        System.arraycopy(parent.keys, 0, keys, 0, position);
+        System.arraycopy(parent.children, 0, children, 0, position);
+        System.arraycopy(parent.keys, position + 1, keys, position, keys.length - position);
+        System.arraycopy(parent.children, position + 1, children, position, children.length - position);
+        parent.keys = keys;
+        parent.children = children;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static long stringBytes(String value) {
+        // String + byte[]; кириллица хранится в UTF-16
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return 24 + 16 + align((long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static final class Node {
+        private String label;
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        // null - слово на этом узле не заканчивается
+        private int[] counts;
+        private String text;
+        private double score;
+        private double maxScore;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private record Candidate(Node node, double priority, boolean terminal) {
+    }
+}
@@ -0,0 +1,82 @@
+package org.javacode.employee_accounting.availability;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Фильтр Блума для строк. Ответ false точный - строки не было, true - возможно была.
+ * Добавление и проверка потокобезопасны без блокировок, удаление не поддерживается.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private final LongAdder insertions = new LongAdder();
+
+    BloomFilter(long capacity, double falsePositiveRate) {
+        this.capacity = Math.max(1, capacity);
+        // Оптимальные m = -n ln p / (ln 2)^2 и k = m / n * ln 2
+        long optimalBits = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (optimalBits + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * Math.log(2)));
+    }
+
+    void add(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (current, m) -> current | m);
+            }
+        }
+        insertions.increment();
+    }
+
+    boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long insertions() {
+        return insertions.sum();
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    long estimatedBytes() {
+        return bitCount / 8;
+    }
+
+    // FNV-1a по байтам UTF-8 с финальным перемешиванием SplitMix64
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,136 @@
+package org.javacode.employee_accounting.availability;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.javacode.employee_accounting.model.projections.EmployeeIdentity;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Фильтры Блума по username и email сотрудников. Отрицательный ответ означает, что значение
+ * точно свободно, и избавляет от запроса в БД. Удалять из фильтра нельзя, поэтому удалённые
+ * и изменённые значения остаются в нём до перестроения и лишь увеличивают долю ложных срабатываний.
+ */
+@Component
+public class EmployeeAvailabilityIndex {
+
+    private static final long MIN_CAPACITY = 10_000;
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeAvailabilityIndex.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final double falsePositiveRate;
+    private final AtomicLong staleValues = new AtomicLong();
+    private volatile Filters current;
+    // Фильтры, которые сейчас строятся: новые значения пишутся и в них
+    private volatile Filters building;
+
+    public EmployeeAvailabilityIndex(EmployeeRepository employeeRepository,
+                                     @Value("${employee.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                     MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new Filters(MIN_CAPACITY, falsePositiveRate);
+        Gauge.builder("employee.availability.insertions", this, index -> index.current.usernames.insertions())
+                .register(meterRegistry);
+        Gauge.builder("employee.availability.stale-values", staleValues, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("employee.availability.estimated-bytes", this,
+                        index -> index.current.usernames.estimatedBytes() + index.current.emails.estimatedBytes())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        long staleBefore = staleValues.get();
+        // Запас вдвое, чтобы доля ложных срабатываний держалась до следующего перестроения
+        Filters rebuilt = new Filters(Math.max(MIN_CAPACITY, employeeRepository.count() * 2), falsePositiveRate);
+        building = rebuilt;
+        try (Stream<EmployeeIdentity> identities = employeeRepository.streamAllIdentities()) {
+            identities.forEach(identity -> rebuilt.add(identity.getUsername(), identity.getEmail()));
+        }
+        current = rebuilt;
+        building = null;
+        staleValues.addAndGet(-staleBefore);
+
+        logger.info(String.format("Availability filters built in %d ms: %d employees, capacity %d, ~%d bytes",
+                (System.nanoTime() - started) / 1_000_000, rebuilt.usernames.insertions(), rebuilt.usernames.capacity(),
+                rebuilt.usernames.estimatedBytes() + rebuilt.emails.estimatedBytes()));
+    }
+
+    // Перестраиваются только фильтры, которые накопили удалённые значения или переполнились
+    @Scheduled(fixedDelayString = "${employee.availability.rebuild-interval-ms:3600000}",
+            initialDelayString = "${employee.availability.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuildIfDegraded() {
+        Filters filters = current;
+        if (staleValues.get() > 0 || filters.usernames.insertions() > filters.usernames.capacity()) {
+            rebuild();
+        }
+    }
+
+    public boolean mightContainUsername(String username) {
+        return current.usernames.mightContain(username);
+    }
+
+    public boolean mightContainEmail(String email) {
+        return current.emails.mightContain(email);
+    }
+
+    /**
+     * Вызывается до фиксации записи, чтобы проверка не сочла значение свободным,
+     * и повторно после фиксации - на случай перестроения, которое началось в промежутке.
+     */
+    public void add(String username, String email) {
+        addNow(username, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(username, email);
+                }
+            });
+        }
+    }
+
+    public void remove(String username, String email) {
+        staleValues.incrementAndGet();
+    }
+
+    private void addNow(String username, String email) {
+        current.add(username, email);
+        Filters next = building;
+        if (next != null) {
+            next.add(username, email);
+        }
+    }
+
+    private static final class Filters {
+
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        private Filters(long capacity, double falsePositiveRate) {
+            this.usernames = new BloomFilter(capacity, falsePositiveRate);
+            this.emails = new BloomFilter(capacity, falsePositiveRate);
+        }
+
+        private void add(String username, String email) {
+            usernames.add(username);
+            emails.add(email);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.javacode.employee_accounting.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.ChangeOperation;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Запись событий изменений в outbox (таблица change_events) в транзакции самого изменения:
+ * событие появляется тогда и только тогда, когда изменение зафиксировано.
+ * После фиксации relay получает сигнал и публикует события без ожидания очередного опроса.
+ */
+@Component
+public class ChangeOutbox {
+
+    private static final String INSERT_EVENT = "INSERT INTO change_events " +
+            "(entity, entity_id, operation, data, occurred_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ChangeOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                        ApplicationEventPublisher applicationEventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeEntity entity, long entityId, ChangeOperation operation, Object data) {
+        recordAll(List.of(new Change(entity, entityId, operation, data)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Timestamp occurredAt = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENT, changes, changes.size(), (ps, change) -> {
+            ps.setString(1, change.entity().name());
+            ps.setLong(2, change.entityId());
+            ps.setString(3, change.operation().name());
+            ps.setString(4, toJson(change.data()));
+            ps.setTimestamp(5, occurredAt);
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applicationEventPublisher.publishEvent(new ChangesCommittedEvent());
+            }
+        });
+    }
+
+    private String toJson(Object data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change event data", e);
+        }
+    }
+
+    public record Change(ChangeEntity entity, long entityId, ChangeOperation operation, Object data) {
+    }
+
+    /**
+     * Сигнал relay: в outbox есть новые зафиксированные события.
+     */
+    public record ChangesCommittedEvent() {
+    }
+}
@@ -1,17 +1,34 @@
 package org.javacode.employee_accounting.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.security.AdaptiveBCryptPasswordEncoder;
+import org.javacode.employee_accounting.security.PasswordHashingExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
 
 @Configuration
+@EnableScheduling
+@EnableConfigurationProperties(PayrollProperties.class)
 @RequiredArgsConstructor
 public class AppConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AdaptiveBCryptPasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${password.bcrypt.strength:0}") int strength,
+                                           @Value("${password.bcrypt.target-latency:100ms}") Duration targetLatency,
+                                           @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${password.bcrypt.max-strength:14}") int maxStrength) {
+        // strength = 0 - подобрать сложность под целевую задержку на этой машине
+        int effectiveStrength = strength > 0
+                ? strength
+                : AdaptiveBCryptPasswordEncoder.calibrateStrength(targetLatency, minStrength, maxStrength);
+        return new AdaptiveBCryptPasswordEncoder(effectiveStrength, passwordHashingExecutor, meterRegistry);
     }
 }
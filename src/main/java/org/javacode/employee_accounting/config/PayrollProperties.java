@@ -0,0 +1,28 @@
+package org.javacode.employee_accounting.config;
+
+import org.javacode.employee_accounting.model.entity.Role;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Правила и параметры расчёта зарплаты: начисление = оклад * коэффициент роли * (1 + надбавка отдела).
+ *
+ * @param chunkSize       ширина диапазона id, который обрабатывает одна задача
+ * @param parallelism     число потоков расчёта, не больше пула соединений; 0 - по числу ядер
+ * @param insertBatchSize размер пакета вставки начислений
+ */
+@ConfigurationProperties(prefix = "payroll")
+public record PayrollProperties(Map<Role, Double> roleMultipliers,
+                                Map<String, Double> departmentBonuses,
+                                int chunkSize,
+                                int parallelism,
+                                int insertBatchSize) {
+
+    public PayrollProperties {
+        roleMultipliers = roleMultipliers == null ? Map.of() : Map.copyOf(roleMultipliers);
+        departmentBonuses = departmentBonuses == null ? Map.of() : Map.copyOf(departmentBonuses);
+        chunkSize = chunkSize > 0 ? chunkSize : 5000;
+        insertBatchSize = insertBatchSize > 0 ? insertBatchSize : 1000;
+    }
+}
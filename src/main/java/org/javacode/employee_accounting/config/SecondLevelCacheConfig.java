@@ -0,0 +1,56 @@
+package org.javacode.employee_accounting.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    // Регионы создаются из application.yml, Hibernate получает готовый менеджер кэшей
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-second-level-cache"), getClass().getClassLoader());
+        properties.regions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.maxSize()));
+            if (region.ttl() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+            }
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+            if (cacheManager.getCache(name) == null) {
+                cacheManager.createCache(name, configuration);
+            }
+            // Регистрирует MXBean статистики, из которого читает JCacheMetrics
+            cacheManager.enableStatistics(name, true);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+
+    // Попадания и промахи по каждому региону (cache.gets с result=hit/miss, доля попаданий - их отношение)
+    // берутся из статистики JCache и не требуют hibernate.generate_statistics
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager,
+                                               SecondLevelCacheProperties properties) {
+        return registry -> properties.regions().keySet().forEach(region ->
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region), "region", region));
+    }
+}
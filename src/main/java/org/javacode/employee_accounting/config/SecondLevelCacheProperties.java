@@ -0,0 +1,19 @@
+package org.javacode.employee_accounting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Настройки регионов кэша второго уровня Hibernate: имя региона -> размер и время жизни.
+ */
+@ConfigurationProperties(prefix = "second-level-cache")
+public record SecondLevelCacheProperties(Map<String, Region> regions) {
+
+    /**
+     * @param ttl время жизни записи после записи; не задано - без истечения
+     */
+    public record Region(long maxSize, Duration ttl) {
+    }
+}
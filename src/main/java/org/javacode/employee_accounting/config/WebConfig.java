@@ -0,0 +1,29 @@
+package org.javacode.employee_accounting.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Двоичные форматы ответа по заголовку Accept: application/x-jackson-smile и application/cbor.
+ * Конвертеры встают на свои места в списке по умолчанию - после JSON, поэтому без Accept
+ * и с Accept: *&#47;* ответ остаётся в JSON.
+ */
+@Configuration
+public class WebConfig {
+
+    // Те же настройки Jackson (spring.jackson.*, модули), что и у JSON
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -1,16 +1,28 @@
 package org.javacode.employee_accounting.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.exception.ResourceNotFoundException;
+import org.javacode.employee_accounting.model.dto.EmployeeBlockDto;
+import org.javacode.employee_accounting.model.dto.response.BlockResultDto;
+import org.javacode.employee_accounting.model.dto.response.PayrollDepartmentTotalDto;
+import org.javacode.employee_accounting.model.dto.response.PayrollRunDto;
 import org.javacode.employee_accounting.service.EmployeeService;
+import org.javacode.employee_accounting.service.PayrollService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/admin")
 @RequiredArgsConstructor
 public class AdminController {
 
     private final EmployeeService employeeService;
+    private final PayrollService payrollService;
 
     @GetMapping("block/{userId}")
     public ResponseEntity<Boolean> isUserBlock(@PathVariable Long userId) {
@@ -23,4 +35,27 @@ public class AdminController {
         return ResponseEntity.ok(employeeService.userIsLocked(userId));
     }
 
+    @PutMapping("block")
+    public BlockResultDto updateUsersBlock(@Validated @RequestBody EmployeeBlockDto blockDto) {
+        return new BlockResultDto(employeeService.setBlock(blockDto));
+    }
+
+    // Расчёт идёт в фоне, ход выполнения - GET payroll/{runId}
+    @PostMapping("payroll")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public PayrollRunDto startPayroll(@RequestParam YearMonth period) {
+        return payrollService.start(period);
+    }
+
+    @GetMapping("payroll/{runId}")
+    public PayrollRunDto getPayrollRun(@PathVariable Long runId) {
+        return payrollService.findRun(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run with id " + runId + " not found"));
+    }
+
+    @GetMapping("payroll/{runId}/departments")
+    public List<PayrollDepartmentTotalDto> getPayrollDepartments(@PathVariable Long runId) {
+        return payrollService.findDepartmentTotals(runId);
+    }
+
 }
@@ -3,11 +3,14 @@ package org.javacode.employee_accounting.controller;
 import lombok.RequiredArgsConstructor;
 import org.javacode.employee_accounting.model.dto.EmployeeSignInDto;
 import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.AvailabilityDto;
 import org.javacode.employee_accounting.service.AuthService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -25,6 +28,12 @@ public class AuthController {
     public ResponseEntity<?> signIn(@RequestBody EmployeeSignInDto employee) throws Exception {
         return ResponseEntity.ok(authService.signIn(employee));
     }
+    // Проверка для формы регистрации, доступна без токена
+    @GetMapping("/availability")
+    public AvailabilityDto checkAvailability(@RequestParam(required = false) String username,
+                                             @RequestParam(required = false) String email) {
+        return authService.checkAvailability(username, email);
+    }
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestBody EmployeeSignInDto employee){
         return ResponseEntity.ok(authService.refreshToken(employee));
@@ -0,0 +1,26 @@
+package org.javacode.employee_accounting.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.service.ChangeFeedService;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    // Каждое сообщение - JSON-массив событий, id сообщения - номер последнего из них
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MODERATOR')")
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeFeedService.subscribe(lastEventId);
+    }
+}
@@ -3,16 +3,29 @@ package org.javacode.employee_accounting.controller;
 import lombok.RequiredArgsConstructor;
 import org.javacode.employee_accounting.exception.ResourceNotFoundException;
 import org.javacode.employee_accounting.model.dto.create.DepartmentCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.DepartmentPayrollDto;
 import org.javacode.employee_accounting.model.dto.response.DepartmentResponseDto;
+import org.javacode.employee_accounting.model.dto.response.DepartmentStatsDto;
+import org.javacode.employee_accounting.model.dto.response.DepartmentSyncDto;
+import org.javacode.employee_accounting.model.dto.response.KeysetPageResponseDto;
+import org.javacode.employee_accounting.model.dto.response.SyncPageDto;
+import org.javacode.employee_accounting.service.DepartmentPayrollService;
 import org.javacode.employee_accounting.service.DepartmentService;
+import org.javacode.employee_accounting.service.DepartmentStatsService;
+import org.javacode.employee_accounting.service.SyncService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
 
 import static org.springframework.http.ResponseEntity.noContent;
 import static org.springframework.http.ResponseEntity.notFound;
@@ -23,18 +36,62 @@ import static org.springframework.http.ResponseEntity.notFound;
 public class DepartmentController {
 
     private final DepartmentService departmentService;
+    private final DepartmentPayrollService departmentPayrollService;
+    private final DepartmentStatsService departmentStatsService;
+    private final SyncService syncService;
 
+    // If-None-Match сверяется с ETag из версии и численности, запись загружается только при изменении
     @GetMapping("/{id}")
-    public DepartmentResponseDto getById(@PathVariable Integer id) {
+    public DepartmentResponseDto getById(@PathVariable Integer id, WebRequest request) {
+        String entityTag = departmentService.findEntityTag(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Department with id " + id + " not found"));
+        if (request.checkNotModified(entityTag)) {
+            return null;
+        }
         return departmentService.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Department with id " + id + " not found"));
     }
 
+    @GetMapping("/{id}/stats")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MODERATOR')")
+    public DepartmentStatsDto getStats(@PathVariable Integer id) {
+        return departmentStatsService.findByDepartmentId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Department with id " + id + " not found"));
+    }
+
     @GetMapping("/all")
-    public Page<DepartmentResponseDto> getAll(Pageable pageable) {
+    public Page<DepartmentResponseDto> getAll(Pageable pageable, WebRequest request) {
+        if (request.checkNotModified(departmentService.collectionTag())) {
+            return null;
+        }
         return departmentService.findAll(pageable);
     }
 
+    // Keyset-режим: первая страница - cursor=, следующие - cursor=nextCursor из ответа
+    @GetMapping(value = "/all", params = "cursor")
+    public KeysetPageResponseDto<DepartmentResponseDto> getAllByKeyset(@RequestParam String cursor, Pageable pageable,
+                                                                       WebRequest request) {
+        if (request.checkNotModified(departmentService.collectionTag())) {
+            return null;
+        }
+        return departmentService.findAllByKeyset(cursor, pageable);
+    }
+
+    @GetMapping("/sync")
+    public SyncPageDto<DepartmentSyncDto> sync(@RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "500") int size) {
+        return syncService.departmentChanges(since, cursor, size);
+    }
+
+    // Отделы упорядочены по имени, параметр sort не учитывается
+    @GetMapping("/payroll")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MODERATOR')")
+    public Page<DepartmentPayrollDto> getPayroll(Pageable pageable) {
+        return departmentPayrollService.findPayroll(pageable);
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("hasAnyAuthority('ADMIN', 'MODERATOR')")
@@ -44,10 +101,14 @@ public class DepartmentController {
 
     @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyAuthority('ADMIN', 'MODERATOR')")
-    public DepartmentResponseDto update(@PathVariable("id") Integer id,
-                                  @Validated @RequestBody DepartmentCreateEditDto department) {
-        return departmentService.update(id, department)
+    public ResponseEntity<DepartmentResponseDto> update(@PathVariable("id") Integer id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                        @Validated @RequestBody DepartmentCreateEditDto department) {
+        DepartmentResponseDto updated = departmentService.update(id, department, ifMatch)
                 .orElseThrow(() -> new ResourceNotFoundException("Department with id " + id + " not found"));
+        return ResponseEntity.ok()
+                .eTag(departmentService.findEntityTag(id).orElse(null))
+                .body(updated);
     }
 
     @DeleteMapping("/{id}")
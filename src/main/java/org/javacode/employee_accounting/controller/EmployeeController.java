@@ -1,20 +1,47 @@
 package org.javacode.employee_accounting.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.javacode.employee_accounting.exception.ResourceNotFoundException;
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
+import org.javacode.employee_accounting.model.dto.ExportFormat;
 import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.AutocompleteSuggestionDto;
+import org.javacode.employee_accounting.model.dto.response.BulkItemResultDto;
 import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeSyncDto;
+import org.javacode.employee_accounting.model.dto.response.ImportResultDto;
+import org.javacode.employee_accounting.model.dto.response.KeysetPageResponseDto;
+import org.javacode.employee_accounting.model.dto.response.SyncPageDto;
 import org.javacode.employee_accounting.model.projections.EmployeeProjection;
+import org.javacode.employee_accounting.service.EmployeeBulkService;
+import org.javacode.employee_accounting.service.EmployeeExportService;
+import org.javacode.employee_accounting.service.EmployeeImportService;
 import org.javacode.employee_accounting.service.EmployeeService;
+import org.javacode.employee_accounting.service.SyncService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
 
 import static org.springframework.http.ResponseEntity.noContent;
@@ -25,22 +52,114 @@ import static org.springframework.http.ResponseEntity.notFound;
 @RequiredArgsConstructor
 public class EmployeeController {
 
+    private static final int STREAM_FLUSH_ROWS = 1000;
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final EmployeeService employeeService;
+    private final EmployeeBulkService employeeBulkService;
+    private final EmployeeImportService employeeImportService;
+    private final EmployeeExportService employeeExportService;
+    private final ObjectMapper objectMapper;
+    private final SyncService syncService;
 
+    // If-None-Match сверяется с ETag из версий, запись загружается только при изменении
     @GetMapping("/{id}")
-    public EmployeeResponseDto getById(@PathVariable Long id) {
+    public EmployeeResponseDto getById(@PathVariable Long id, WebRequest request) {
+        String entityTag = employeeService.findEntityTag(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Employee with id " + id + " not found"));
+        if (request.checkNotModified(entityTag)) {
+            return null;
+        }
         return employeeService.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee with id " + id + " not found"));
     }
 
     @GetMapping("/all/employees_projection")
-    public List<EmployeeProjection> getAllEmployeeProjection() {
+    public List<EmployeeProjection> getAllEmployeeProjection(WebRequest request) {
+        if (request.checkNotModified(employeeService.collectionTag())) {
+            return null;
+        }
         return employeeService.findAllEmployeeProjection();
     }
 
+    // NDJSON: строка за строкой из серверного курсора, память не зависит от размера таблицы.
+    // При обрыве соединения запись падает с IOException, поток закрывается и запрос в БД отменяется
+    @GetMapping(value = "/all/employees_projection/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeeProjection() {
+        StreamingResponseBody body = outputStream -> {
+            int[] rows = {0};
+            employeeService.streamAllEmployeeProjection(projection -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(projection));
+                    outputStream.write('\n');
+                    if (++rows[0] % STREAM_FLUSH_ROWS == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Фильтры: department, role, position, minSalary, maxSalary
     @GetMapping("/all")
-    public Page<EmployeeResponseDto> getAll(Pageable pageable) {
-        return employeeService.findAllEmployeeProjection(pageable);
+    public Page<EmployeeResponseDto> getAll(EmployeeFilterDto filter, Pageable pageable, WebRequest request) {
+        if (request.checkNotModified(employeeService.collectionTag())) {
+            return null;
+        }
+        return employeeService.findAllEmployeeProjection(filter, pageable);
+    }
+
+    // Keyset-режим: первая страница - cursor=, следующие - cursor=nextCursor из ответа
+    @GetMapping(value = "/all", params = "cursor")
+    public KeysetPageResponseDto<EmployeeResponseDto> getAllByKeyset(@RequestParam String cursor, Pageable pageable,
+                                                                     WebRequest request) {
+        if (request.checkNotModified(employeeService.collectionTag())) {
+            return null;
+        }
+        return employeeService.findAllByKeyset(cursor, pageable);
+    }
+
+    // Первый запрос - since из watermark прошлой синхронизации (без since - полный снимок),
+    // следующие - cursor=nextCursor, пока hasNext
+    @GetMapping("/sync")
+    public SyncPageDto<EmployeeSyncDto> sync(@RequestParam(required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "500") int size) {
+        return syncService.employeeChanges(since, cursor, size);
+    }
+
+    // Сортировка задаётся релевантностью, параметр sort не учитывается
+    @GetMapping("/search")
+    public Page<EmployeeResponseDto> search(@RequestParam("q") String query, Pageable pageable, WebRequest request) {
+        if (request.checkNotModified(employeeService.collectionTag())) {
+            return null;
+        }
+        return employeeService.search(query, pageable);
+    }
+
+    @GetMapping("/autocomplete")
+    public List<AutocompleteSuggestionDto> autocomplete(@RequestParam String prefix,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        return employeeService.autocomplete(prefix, limit);
+    }
+
+    // Фильтры передаются параметрами запроса: department, role, position, minSalary, maxSalary
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(EmployeeFilterDto filter,
+                                                        @RequestParam(defaultValue = "CSV") ExportFormat format) {
+        StreamingResponseBody body = outputStream -> employeeExportService.export(filter, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"employees." + format.getExtension() + "\"")
+                .body(body);
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -50,12 +169,51 @@ public class EmployeeController {
         return employeeService.create(employee);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MODERATOR')")
+    public List<BulkItemResultDto> createAll(@RequestBody List<EmployeeCreateEditDto> employees) {
+        return employeeBulkService.createAll(employees);
+    }
+
+    // Ответ - файл отклонённых строк (CSV), итоги в заголовках X-Imported-Rows / X-Rejected-Rows
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MODERATOR')")
+    public ResponseEntity<StreamingResponseBody> importCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        Path rejects = Files.createTempFile("employee-import-rejects-", ".csv");
+        ImportResultDto result;
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
+             Writer writer = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            result = employeeImportService.importCsv(reader, writer);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(rejects);
+            throw e;
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                Files.copy(rejects, outputStream);
+            } finally {
+                Files.deleteIfExists(rejects);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rejects.csv\"")
+                .header("X-Imported-Rows", String.valueOf(result.imported()))
+                .header("X-Rejected-Rows", String.valueOf(result.rejected()))
+                .body(body);
+    }
+
     @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyAuthority('ADMIN', 'MODERATOR')")
-    public EmployeeResponseDto update(@PathVariable("id") Long id,
-                                      @Validated @RequestBody EmployeeCreateEditDto employee) {
-        return employeeService.update(id, employee)
+    public ResponseEntity<EmployeeResponseDto> update(@PathVariable("id") Long id,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                      @Validated @RequestBody EmployeeCreateEditDto employee) {
+        EmployeeResponseDto updated = employeeService.update(id, employee, ifMatch)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee with id " + id + " not found"));
+        return ResponseEntity.ok()
+                .eTag(employeeService.findEntityTag(id).orElse(null))
+                .body(updated);
     }
 
     @DeleteMapping("/{id}")
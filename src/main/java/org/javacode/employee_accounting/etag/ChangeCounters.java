@@ -0,0 +1,63 @@
+package org.javacode.employee_accounting.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.model.entity.ChangeCounter;
+import org.javacode.employee_accounting.repository.ChangeCounterRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Счётчики изменений таблиц для слабых ETag списков. Счётчик увеличивается один раз
+ * на транзакцию непосредственно перед фиксацией, поэтому строка счётчика
+ * блокируется только на время commit, а не всей транзакции записи.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeCounters {
+
+    public static final String EMPLOYEES = "employees";
+    public static final String DEPARTMENTS = "departments";
+
+    private final ChangeCounterRepository changeCounterRepository;
+
+    public String collectionTag(String table) {
+        return EntityTags.weak(changeCounterRepository.findVersionByName(table).orElse(0L));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void changed(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(table);
+            return;
+        }
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            // Упорядоченный набор: счётчики блокируются в одном порядке во всех транзакциях
+            Set<String> tables = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    tables.forEach(ChangeCounters.this::increment);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeCounters.this);
+                }
+            });
+            pending = tables;
+        }
+        pending.add(table);
+    }
+
+    private void increment(String table) {
+        if (changeCounterRepository.increment(table) == 0) {
+            changeCounterRepository.save(new ChangeCounter(table, 1));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.javacode.employee_accounting.etag;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Построение и сравнение ETag. Сильный ETag записи собирается из версий,
+ * от которых зависит её представление, слабый ETag списка - из счётчика изменений таблицы.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String strong(Object... parts) {
+        return Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining(".", "\"", "\""));
+    }
+
+    public static String weak(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * Сравнение для If-Match (RFC 9110, 13.1.1): только сильное, слабые теги не совпадают никогда.
+     */
+    public static boolean matches(String ifMatch, String tag) {
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(tag));
+    }
+}
@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.exception;
+
+public class BulkLimitExceededException extends RuntimeException {
+    public BulkLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,8 @@
 package org.javacode.employee_accounting.exception;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
@@ -23,6 +26,64 @@ public class ControllerExceptionHandler {
                 .body(ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<String> handleInvalidImportFileException(InvalidImportFileException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(BulkLimitExceededException.class)
+    public ResponseEntity<String> handleBulkLimitExceededException(BulkLimitExceededException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailedException(PreconditionFailedException ex) {
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(SyncWatermarkExpiredException.class)
+    public ResponseEntity<String> handleSyncWatermarkExpiredException(SyncWatermarkExpiredException ex) {
+        return ResponseEntity
+                .status(HttpStatus.GONE)
+                .body(ex.getMessage());
+    }
+
+    // Параллельное изменение без If-Match: запись не перезаписывается молча
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(PayrollRunConflictException.class)
+    public ResponseEntity<String> handlePayrollRunConflictException(PayrollRunConflictException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ex.getMessage());
+    }
+
+    // Уникальные ограничения БД: одновременная вставка того же username или email
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body("Request conflicts with existing data");
+    }
+
     @ExceptionHandler(AuthorizationDeniedException.class)
     public ResponseEntity<String> handleAuthorizationDeniedException(AuthorizationDeniedException ex) {
         return ResponseEntity
@@ -37,6 +98,22 @@ public class ControllerExceptionHandler {
                 .body(ex.getMessage());
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(SubscriberLimitExceededException.class)
+    public ResponseEntity<String> handleSubscriberLimitExceededException(SubscriberLimitExceededException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(BlockedAccountException.class)
     public ResponseEntity<String> handleBlockedAccountException(BlockedAccountException ex) {
         return ResponseEntity
@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
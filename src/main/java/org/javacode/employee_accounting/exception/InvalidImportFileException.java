@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.exception;
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
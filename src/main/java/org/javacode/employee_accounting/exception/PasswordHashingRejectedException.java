@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.exception;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.exception;
+
+public class PayrollRunConflictException extends RuntimeException {
+    public PayrollRunConflictException(String message) {
+        super(message);
+    }
+}
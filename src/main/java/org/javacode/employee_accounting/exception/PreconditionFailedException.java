@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
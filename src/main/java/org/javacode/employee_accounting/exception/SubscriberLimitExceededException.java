@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.exception;
+
+public class SubscriberLimitExceededException extends RuntimeException {
+    public SubscriberLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.exception;
+
+public class SyncWatermarkExpiredException extends RuntimeException {
+    public SyncWatermarkExpiredException(String message) {
+        super(message);
+    }
+}
@@ -16,13 +16,17 @@ public class EmployeeCreateEditMapper implements Mapper<EmployeeCreateEditDto, E
 
     @Override
     public Employee map(EmployeeCreateEditDto employee) {
+        return map(employee, passwordEncoder.encode(employee.password()));
+    }
+
+    // Пароль уже захэширован вызывающим кодом (пакетное создание)
+    public Employee map(EmployeeCreateEditDto employee, String encodedPassword) {
         return Employee.builder()
                 .firstName(employee.firstname())
                 .lastName(employee.lastname())
                 .email(employee.email())
                 .username(employee.username())
-                .password(employee.password())
-                .password(passwordEncoder.encode(employee.password()))
+                .password(encodedPassword)
                 .role(employee.role())
                 .salary(employee.salary())
                 .position(employee.position())
@@ -36,7 +40,7 @@ public class EmployeeCreateEditMapper implements Mapper<EmployeeCreateEditDto, E
         employee.setLastName(employeeDto.lastname());
         employee.setEmail(employeeDto.email());
         employee.setUsername(employeeDto.username());
-        employee.setPassword(employeeDto.password());
+        employee.setPassword(passwordEncoder.encode(employeeDto.password()));
         employee.setRole(employeeDto.role());
         employee.setSalary(employeeDto.salary());
         employee.setPosition(employeeDto.position());
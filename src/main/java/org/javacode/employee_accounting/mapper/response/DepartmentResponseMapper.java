@@ -12,4 +12,8 @@ public class DepartmentResponseMapper implements Mapper<Department, DepartmentRe
     public DepartmentResponseDto map(Department department) {
         return new DepartmentResponseDto(department.getName());
     }
+
+    public DepartmentResponseDto map(Department department, long headcount) {
+        return new DepartmentResponseDto(department.getName(), headcount);
+    }
 }
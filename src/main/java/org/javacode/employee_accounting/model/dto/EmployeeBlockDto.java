@@ -0,0 +1,21 @@
+package org.javacode.employee_accounting.model.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Массовая блокировка: сотрудники выбираются по списку id или по названию отдела.
+ */
+public record EmployeeBlockDto(
+        @NotNull
+        Boolean locked,
+        List<Long> ids,
+        String department) {
+
+    @AssertTrue(message = "either ids or department must be specified")
+    public boolean isTargetSpecified() {
+        return (ids != null && !ids.isEmpty()) != (department != null);
+    }
+}
@@ -0,0 +1,15 @@
+package org.javacode.employee_accounting.model.dto;
+
+import org.javacode.employee_accounting.model.entity.Role;
+
+public record EmployeeFilterDto(
+        String department,
+        Role role,
+        String position,
+        Double minSalary,
+        Double maxSalary) {
+
+    public boolean isEmpty() {
+        return department == null && role == null && position == null && minSalary == null && maxSalary == null;
+    }
+}
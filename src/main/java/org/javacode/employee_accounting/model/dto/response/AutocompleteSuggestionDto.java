@@ -0,0 +1,11 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import org.javacode.employee_accounting.autocomplete.AutocompleteField;
+
+import java.util.Set;
+
+public record AutocompleteSuggestionDto(
+        String text,
+        double score,
+        Set<AutocompleteField> fields) {
+}
@@ -0,0 +1,10 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// null - значение не проверялось
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AvailabilityDto(
+        Boolean usernameAvailable,
+        Boolean emailAvailable) {
+}
@@ -0,0 +1,5 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+public record BlockResultDto(
+        long affected) {
+}
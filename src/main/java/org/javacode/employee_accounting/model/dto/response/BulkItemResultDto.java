@@ -0,0 +1,16 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+public record BulkItemResultDto(
+        int index,
+        int status,
+        EmployeeResponseDto employee,
+        String error) {
+
+    public static BulkItemResultDto created(int index, EmployeeResponseDto employee) {
+        return new BulkItemResultDto(index, 201, employee, null);
+    }
+
+    public static BulkItemResultDto rejected(int index, int status, String error) {
+        return new BulkItemResultDto(index, status, null, error);
+    }
+}
@@ -0,0 +1,20 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.ChangeOperation;
+
+import java.time.Instant;
+
+/**
+ * @param data представление записи после изменения (как в GET), для удаления - null
+ */
+public record ChangeEventDto(
+        long sequence,
+        ChangeEntity entity,
+        long entityId,
+        ChangeOperation operation,
+        @JsonRawValue
+        String data,
+        Instant occurredAt) {
+}
@@ -0,0 +1,16 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import java.util.List;
+
+/**
+ * Фонд оплаты отдела. Для отдела без сотрудников средняя, медиана и p90 равны null.
+ */
+public record DepartmentPayrollDto(
+        String department,
+        long headcount,
+        double totalPayroll,
+        Double averageSalary,
+        Double medianSalary,
+        Double p90Salary,
+        List<RolePayrollDto> roles) {
+}
@@ -1,6 +1,14 @@
 package org.javacode.employee_accounting.model.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public record DepartmentResponseDto(
-        String name) {
+        String name,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Long headcount) {
 
+    // Отдел внутри ответа о сотруднике - без численности
+    public DepartmentResponseDto(String name) {
+        this(name, null);
+    }
 }
@@ -0,0 +1,13 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+public record DepartmentStatsDto(
+        String department,
+        long headcount,
+        double totalPayroll,
+        Double averageSalary) {
+
+    // Для JPQL-выражения SELECT new
+    public DepartmentStatsDto(String department, long headcount, double totalPayroll) {
+        this(department, headcount, totalPayroll, headcount == 0 ? null : totalPayroll / headcount);
+    }
+}
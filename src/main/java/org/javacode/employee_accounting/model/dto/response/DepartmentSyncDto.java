@@ -0,0 +1,9 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import java.time.Instant;
+
+public record DepartmentSyncDto(
+        int id,
+        String name,
+        Instant updatedAt) {
+}
@@ -7,4 +7,11 @@ public record EmployeeResponseDto(
         String position,
         Double salary,
         DepartmentResponseDto department) {
+
+    // Для JPQL-выражений SELECT new: вложенный конструктор в JPQL недоступен
+    public EmployeeResponseDto(String firstname, String lastname, String username, String position,
+                               Double salary, String departmentName) {
+        this(firstname, lastname, username, position, salary,
+                departmentName == null ? null : new DepartmentResponseDto(departmentName));
+    }
 }
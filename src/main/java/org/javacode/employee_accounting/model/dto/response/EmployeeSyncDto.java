@@ -0,0 +1,14 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import java.time.Instant;
+
+public record EmployeeSyncDto(
+        long id,
+        String firstname,
+        String lastname,
+        String username,
+        String position,
+        Double salary,
+        Integer departmentId,
+        Instant updatedAt) {
+}
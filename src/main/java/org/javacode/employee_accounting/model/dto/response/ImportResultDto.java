@@ -0,0 +1,6 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+public record ImportResultDto(
+        long imported,
+        long rejected) {
+}
@@ -0,0 +1,9 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import java.util.List;
+
+public record KeysetPageResponseDto<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext) {
+}
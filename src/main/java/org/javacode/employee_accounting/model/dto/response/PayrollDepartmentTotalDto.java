@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+public record PayrollDepartmentTotalDto(
+        String department,
+        long headcount,
+        double totalAmount) {
+}
@@ -0,0 +1,23 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import org.javacode.employee_accounting.model.entity.PayrollRunStatus;
+
+import java.time.Instant;
+
+/**
+ * @param progress          доля обработанных сотрудников от 0 до 1
+ * @param employeesPerSecond средняя скорость расчёта с начала запуска
+ */
+public record PayrollRunDto(
+        Long id,
+        String period,
+        PayrollRunStatus status,
+        long employees,
+        long processed,
+        double progress,
+        double totalAmount,
+        double employeesPerSecond,
+        Instant startedAt,
+        Instant finishedAt,
+        String error) {
+}
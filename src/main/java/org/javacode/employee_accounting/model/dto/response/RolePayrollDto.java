@@ -0,0 +1,12 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import org.javacode.employee_accounting.model.entity.Role;
+
+public record RolePayrollDto(
+        Role role,
+        long headcount,
+        double totalPayroll,
+        double averageSalary,
+        double medianSalary,
+        double p90Salary) {
+}
@@ -0,0 +1,16 @@
+package org.javacode.employee_accounting.model.dto.response;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Страница дельты: сначала изменённые записи, затем id удалённых.
+ * watermark заполняется на последней странице - это since для следующей синхронизации.
+ */
+public record SyncPageDto<T>(
+        List<T> upserts,
+        List<Long> deleted,
+        String nextCursor,
+        boolean hasNext,
+        Instant watermark) {
+}
@@ -0,0 +1,44 @@
+package org.javacode.employee_accounting.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "change_events")
+public class ChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // null - событие ещё не опубликовано relay
+    @Column(unique = true)
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ChangeEntity entity;
+
+    @Column(nullable = false)
+    private long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeOperation operation;
+
+    // Представление записи в JSON после изменения, для удаления - null
+    @Column(columnDefinition = "TEXT")
+    private String data;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+}
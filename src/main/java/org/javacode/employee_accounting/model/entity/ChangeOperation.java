@@ -0,0 +1,5 @@
+package org.javacode.employee_accounting.model.entity;
+
+public enum ChangeOperation {
+    CREATED, UPDATED, DELETED
+}
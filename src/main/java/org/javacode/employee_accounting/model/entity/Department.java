@@ -5,13 +5,21 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "departments")
+@Table(name = "departments", indexes = @Index(name = "idx_departments_updated_at_id", columnList = "updated_at, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "departments")
 public class Department {
 
     @Id
@@ -20,4 +28,13 @@ public class Department {
 
     @Column(nullable = false, unique = true)
     private String name;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(nullable = false)
+    private Instant updatedAt;
 }
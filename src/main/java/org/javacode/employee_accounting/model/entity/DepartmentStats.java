@@ -0,0 +1,26 @@
+package org.javacode.employee_accounting.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "department_stats")
+public class DepartmentStats {
+
+    @Id
+    @Column(name = "department_id")
+    private Integer departmentId;
+
+    @Column(nullable = false)
+    private long headcount;
+
+    @Column(nullable = false)
+    private double totalSalary;
+}
@@ -5,10 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
@@ -17,7 +22,19 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "employees")
+// Индексы повторяют миграции V3, V5 и V12, чтобы схема, созданная Hibernate в тестах, им соответствовала
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_department_id", columnList = "department_id"),
+        @Index(name = "idx_employees_department_id_role_salary", columnList = "department_id, role, salary"),
+        @Index(name = "idx_employees_role_id", columnList = "role, id"),
+        @Index(name = "idx_employees_position_id", columnList = "position, id"),
+        @Index(name = "idx_employees_salary_id", columnList = "salary, id"),
+        @Index(name = "idx_employees_last_name_first_name", columnList = "last_name, first_name"),
+        @Index(name = "idx_employees_email", columnList = "email"),
+        @Index(name = "idx_employees_updated_at_id", columnList = "updated_at, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employees")
 public class Employee implements UserDetails {
 
     @Id
@@ -53,6 +70,21 @@ public class Employee implements UserDetails {
 
     private int failedLoginAttempts;
 
+    // Увеличивается при блокировке, смене роли и удалении - отзывает ранее выпущенные токены
+    @Column(nullable = false)
+    private long securityVersion;
+
+    // Оптимистическая блокировка и сильный ETag
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // Водяной знак дельта-синхронизации; пакетные JDBC-вставки получают значение по умолчанию
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(nullable = false)
+    private Instant updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "department_id")
     private Department department;
@@ -0,0 +1,34 @@
+package org.javacode.employee_accounting.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "payroll_department_totals", indexes =
+        @Index(name = "idx_payroll_department_totals_run_id", columnList = "run_id"))
+public class PayrollDepartmentTotal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    // null - сотрудники без отдела
+    @Column(name = "department_id")
+    private Integer departmentId;
+
+    @Column(nullable = false)
+    private long headcount;
+
+    @Column(nullable = false)
+    private double totalAmount;
+}
@@ -0,0 +1,45 @@
+package org.javacode.employee_accounting.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Начисление сотруднику в расчёте. Записывается пакетами через JDBC, сущность описывает схему.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "payroll_entries")
+@IdClass(PayrollEntry.PayrollEntryId.class)
+public class PayrollEntry {
+
+    @Id
+    @Column(name = "run_id")
+    private Long runId;
+
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Column(name = "department_id")
+    private Integer departmentId;
+
+    @Column(nullable = false)
+    private double amount;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PayrollEntryId implements Serializable {
+
+        private Long runId;
+        private Long employeeId;
+    }
+}
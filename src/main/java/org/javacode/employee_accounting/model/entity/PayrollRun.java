@@ -0,0 +1,46 @@
+package org.javacode.employee_accounting.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "payroll_runs")
+public class PayrollRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PayrollRunStatus status;
+
+    @Column(nullable = false)
+    private long employees;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private double totalAmount;
+
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+}
@@ -0,0 +1,5 @@
+package org.javacode.employee_accounting.model.entity;
+
+public enum PayrollRunStatus {
+    RUNNING, COMPLETED, FAILED
+}
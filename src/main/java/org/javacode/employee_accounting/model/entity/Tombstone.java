@@ -0,0 +1,35 @@
+package org.javacode.employee_accounting.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "tombstones", indexes = {
+        @Index(name = "idx_tombstones_entity_deleted_at_id", columnList = "entity, deleted_at, id"),
+        @Index(name = "idx_tombstones_deleted_at", columnList = "deleted_at")
+})
+public class Tombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ChangeEntity entity;
+
+    @Column(nullable = false)
+    private long entityId;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+}
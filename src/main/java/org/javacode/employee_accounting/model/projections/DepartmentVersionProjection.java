@@ -0,0 +1,6 @@
+package org.javacode.employee_accounting.model.projections;
+
+public interface DepartmentVersionProjection {
+    long getVersion();
+    long getHeadcount();
+}
@@ -0,0 +1,6 @@
+package org.javacode.employee_accounting.model.projections;
+
+public interface EmployeeIdentity {
+    String getUsername();
+    String getEmail();
+}
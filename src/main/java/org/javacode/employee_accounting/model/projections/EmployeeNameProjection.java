@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.model.projections;
+
+public interface EmployeeNameProjection {
+    String getFirstName();
+    String getLastName();
+    String getPosition();
+}
@@ -0,0 +1,7 @@
+package org.javacode.employee_accounting.model.projections;
+
+public interface EmployeeVersionProjection {
+    long getVersion();
+    Integer getDepartmentId();
+    Long getDepartmentVersion();
+}
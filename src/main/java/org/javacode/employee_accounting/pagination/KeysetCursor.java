@@ -0,0 +1,9 @@
+package org.javacode.employee_accounting.pagination;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+
+public record KeysetCursor(
+        KeysetScrollPosition position,
+        Sort sort) {
+}
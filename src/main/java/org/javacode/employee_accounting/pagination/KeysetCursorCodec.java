@@ -0,0 +1,122 @@
+package org.javacode.employee_accounting.pagination;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.exception.InvalidCursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Непрозрачный курсор для keyset-пагинации: base64url от JSON с сортировкой
+ * и значениями ключей (поля сортировки + id) последней строки страницы.
+ * Сортировка хранится в курсоре, поэтому продолжение не зависит от параметра sort запроса.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetCursorCodec {
+
+    private static final String SORT = "s";
+    private static final String KEYS = "k";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param cursor       пустой или null - первая страница с сортировкой из запроса
+     * @param sortable     допустимые поля сортировки и их типы, должен содержать id
+     */
+    public KeysetCursor decode(String cursor, Sort requestedSort, Map<String, Class<?>> sortable) {
+        if (cursor == null || cursor.isBlank()) {
+            Sort sort = requestedSort.isSorted() ? requestedSort : Sort.by("id");
+            validate(sort, sortable);
+            return new KeysetCursor(ScrollPosition.keyset(), sort);
+        }
+
+        Map<String, Object> payload;
+        try {
+            payload = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<>() {});
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+
+        List<Sort.Order> orders = new ArrayList<>();
+        if (!(payload.get(SORT) instanceof List<?> sortList) || sortList.isEmpty()
+                || !(payload.get(KEYS) instanceof Map<?, ?> keyMap)) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        for (Object order : sortList) {
+            String value = String.valueOf(order);
+            int separator = value.lastIndexOf(',');
+            if (separator < 0) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            orders.add(new Sort.Order(direction(value.substring(separator + 1)), value.substring(0, separator)));
+        }
+        Sort sort = Sort.by(orders);
+        validate(sort, sortable);
+
+        // Ключи курсора - ровно поля сортировки и id, иначе позиция не соответствует сортировке
+        Set<String> expectedKeys = new HashSet<>();
+        sort.forEach(order -> expectedKeys.add(order.getProperty()));
+        expectedKeys.add("id");
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keyMap.forEach((property, value) -> {
+            Class<?> type = sortable.get(String.valueOf(property));
+            if (type == null || value == null || !expectedKeys.contains(String.valueOf(property))) {
+                throw new InvalidCursorException("Cursor key " + property + " is not supported");
+            }
+            try {
+                keys.put(String.valueOf(property), objectMapper.convertValue(value, type));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidCursorException("Cursor key " + property + " has invalid value");
+            }
+        });
+        if (!keys.keySet().equals(expectedKeys)) {
+            throw new InvalidCursorException("Cursor keys do not match its sort");
+        }
+        return new KeysetCursor(ScrollPosition.forward(keys), sort);
+    }
+
+    public String encodeNext(Window<?> window, Sort sort) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        Map<String, Object> payload = Map.of(
+                SORT, sort.stream().map(order -> order.getProperty() + "," + order.getDirection()).toList(),
+                KEYS, position.getKeys());
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Sort.Direction direction(String value) {
+        try {
+            return Sort.Direction.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    private static void validate(Sort sort, Map<String, Class<?>> sortable) {
+        sort.forEach(order -> {
+            if (!sortable.containsKey(order.getProperty())) {
+                throw new InvalidCursorException("Sorting by " + order.getProperty() + " is not supported in cursor mode");
+            }
+        });
+    }
+}
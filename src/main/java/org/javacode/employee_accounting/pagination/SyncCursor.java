@@ -0,0 +1,39 @@
+package org.javacode.employee_accounting.pagination;
+
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+
+import java.time.Instant;
+
+/**
+ * Позиция в дельте [since, horizon): фаза и ключ (время, id) последней отданной строки.
+ * Граница horizon фиксируется на первой странице, поэтому изменения, сделанные во время
+ * обхода, не сдвигают его и попадут в следующую синхронизацию.
+ *
+ * @param since null - полный снимок без удалений
+ */
+public record SyncCursor(
+        ChangeEntity entity,
+        Instant since,
+        Instant horizon,
+        Phase phase,
+        Instant afterTimestamp,
+        long afterId) {
+
+    public enum Phase {
+        UPSERTS,
+        DELETIONS
+    }
+
+    // id > 0 при равном времени: строки ровно на since тоже входят в дельту
+    public static SyncCursor start(ChangeEntity entity, Instant since, Instant horizon) {
+        return new SyncCursor(entity, since, horizon, Phase.UPSERTS, since != null ? since : Instant.EPOCH, 0);
+    }
+
+    public SyncCursor after(Instant timestamp, long id) {
+        return new SyncCursor(entity, since, horizon, phase, timestamp, id);
+    }
+
+    public SyncCursor deletions() {
+        return new SyncCursor(entity, since, horizon, Phase.DELETIONS, since, 0);
+    }
+}
@@ -0,0 +1,42 @@
+package org.javacode.employee_accounting.pagination;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.exception.InvalidCursorException;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор дельта-синхронизации: base64url от JSON с {@link SyncCursor}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SyncCursorCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public SyncCursor decode(String cursor, ChangeEntity entity) {
+        SyncCursor decoded;
+        try {
+            decoded = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), SyncCursor.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (decoded.entity() != entity || decoded.horizon() == null || decoded.phase() == null
+                || decoded.afterTimestamp() == null) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        return decoded;
+    }
+
+    public String encode(SyncCursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.javacode.employee_accounting.payroll;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.javacode.employee_accounting.config.PayrollProperties;
+import org.javacode.employee_accounting.model.entity.Department;
+import org.javacode.employee_accounting.model.entity.Role;
+import org.javacode.employee_accounting.repository.DepartmentRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.LongConsumer;
+
+/**
+ * Расчёт зарплаты по диапазонам id сотрудников. Каждая задача читает свой диапазон
+ * по первичному ключу, поэтому память не зависит от числа сотрудников. Задачи выполняются
+ * в отдельном ForkJoinPool и копят итоги по отделам в собственной карте: общих изменяемых
+ * данных у них нет, итоги сливает один поток после завершения задач.
+ * Диапазоны читаются разными транзакциями, единого снимка таблицы у расчёта нет.
+ */
+@Component
+public class PayrollEngine {
+
+    private static final String CHUNK_QUERY =
+            "SELECT id, role, salary, department_id FROM employees WHERE id BETWEEN ? AND ?";
+    private static final String INSERT_ENTRY =
+            "INSERT INTO payroll_entries (run_id, employee_id, department_id, amount) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DepartmentRepository departmentRepository;
+    private final PayrollProperties properties;
+    private final ForkJoinPool pool;
+    private final Counter processedEmployees;
+    private final Timer chunkTimer;
+
+    public PayrollEngine(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         DepartmentRepository departmentRepository,
+                         PayrollProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.departmentRepository = departmentRepository;
+        this.properties = properties;
+        int parallelism = properties.parallelism() > 0
+                ? properties.parallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("payroll-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        ExecutorServiceMetrics.monitor(meterRegistry, pool, "payroll");
+        // Скорость расчёта - rate() этого счётчика
+        this.processedEmployees = Counter.builder("payroll.employees.processed")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("payroll.chunk.duration")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Считает начисления всех сотрудников и записывает их в payroll_entries.
+     *
+     * @param progress получает число сотрудников в каждой обработанной порции
+     * @return итоги по id отдела, null - сотрудники без отдела
+     */
+    public Map<Integer, DepartmentTotal> run(long runId, LongConsumer progress) {
+        PayrollRules rules = loadRules();
+        long[] range = jdbcTemplate.queryForObject("SELECT min(id), max(id) FROM employees",
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)});
+        Map<Integer, DepartmentTotal> totals = new HashMap<>();
+        if (range == null) {
+            return totals;
+        }
+
+        List<ForkJoinTask<Map<Integer, DepartmentTotal>>> tasks = new ArrayList<>();
+        for (long from = range[0]; from <= range[1]; from += properties.chunkSize()) {
+            long chunkFrom = from;
+            long chunkTo = Math.min(range[1], from + properties.chunkSize() - 1);
+            tasks.add(pool.submit(() -> processChunk(runId, chunkFrom, chunkTo, rules, progress)));
+        }
+        try {
+            for (ForkJoinTask<Map<Integer, DepartmentTotal>> task : tasks) {
+                task.join().forEach((departmentId, partial) -> totals.merge(departmentId, partial, DepartmentTotal::plus));
+            }
+        } catch (RuntimeException e) {
+            tasks.forEach(task -> task.cancel(true));
+            throw e;
+        }
+        return totals;
+    }
+
+    private Map<Integer, DepartmentTotal> processChunk(long runId, long from, long to,
+                                                       PayrollRules rules, LongConsumer progress) {
+        return chunkTimer.record(() -> {
+            List<Entry> entries = new ArrayList<>();
+            Map<Integer, DepartmentTotal> partial = new HashMap<>();
+            jdbcTemplate.query(CHUNK_QUERY, rs -> {
+                Integer departmentId = rs.getObject("department_id", Integer.class);
+                double amount = rules.amount(Role.valueOf(rs.getString("role")), departmentId, rs.getDouble("salary"));
+                entries.add(new Entry(rs.getLong("id"), departmentId, amount));
+                partial.merge(departmentId, new DepartmentTotal(1, amount), DepartmentTotal::plus);
+            }, from, to);
+            // Порция записывается целиком или не записывается
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    INSERT_ENTRY, entries, properties.insertBatchSize(), (ps, entry) -> {
+                        ps.setLong(1, runId);
+                        ps.setLong(2, entry.employeeId());
+                        ps.setObject(3, entry.departmentId(), Types.INTEGER);
+                        ps.setDouble(4, entry.amount());
+                    }));
+            processedEmployees.increment(entries.size());
+            progress.accept(entries.size());
+            return partial;
+        });
+    }
+
+    private PayrollRules loadRules() {
+        Map<Integer, Double> bonuses = new HashMap<>();
+        properties.departmentBonuses().forEach((name, bonus) -> {
+            Department department = departmentRepository.findByName(name);
+            if (department != null) {
+                bonuses.put(department.getId(), bonus);
+            }
+        });
+        return new PayrollRules(properties.roleMultipliers(), bonuses);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public record DepartmentTotal(long headcount, double amount) {
+
+        DepartmentTotal plus(DepartmentTotal other) {
+            return new DepartmentTotal(headcount + other.headcount, amount + other.amount);
+        }
+    }
+
+    private record Entry(long employeeId, Integer departmentId, double amount) {
+    }
+}
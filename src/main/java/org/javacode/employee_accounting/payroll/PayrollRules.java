@@ -0,0 +1,29 @@
+package org.javacode.employee_accounting.payroll;
+
+import org.javacode.employee_accounting.model.entity.Role;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Правила начисления на время одного расчёта. Надбавки заданы по имени отдела
+ * и заранее переведены в id, чтобы расчёт не обращался к таблице отделов.
+ */
+final class PayrollRules {
+
+    private final Map<Role, Double> roleMultipliers;
+    // HashMap: у сотрудника без отдела ключ null
+    private final Map<Integer, Double> departmentBonuses;
+
+    PayrollRules(Map<Role, Double> roleMultipliers, Map<Integer, Double> departmentBonuses) {
+        this.roleMultipliers = new HashMap<>(roleMultipliers);
+        this.departmentBonuses = new HashMap<>(departmentBonuses);
+    }
+
+    double amount(Role role, Integer departmentId, double salary) {
+        double amount = salary
+                * roleMultipliers.getOrDefault(role, 1.0)
+                * (1 + departmentBonuses.getOrDefault(departmentId, 0.0));
+        return Math.round(amount * 100) / 100.0;
+    }
+}
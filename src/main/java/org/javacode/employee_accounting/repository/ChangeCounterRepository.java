@@ -0,0 +1,27 @@
+package org.javacode.employee_accounting.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.javacode.employee_accounting.model.entity.ChangeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeCounterRepository extends JpaRepository<ChangeCounter, String> {
+
+    // Кэш запросов сбрасывается при каждом increment, до этого счётчик читается без обращения к БД
+    @Query("SELECT c.version FROM ChangeCounter c WHERE c.name = :name")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Long> findVersionByName(String name);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChangeCounter c SET c.version = c.version + 1 WHERE c.name = :name")
+    int increment(String name);
+}
@@ -0,0 +1,36 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.dto.response.ChangeEventDto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Операции relay и чтения ленты изменений через JDBC: выполняются постоянно
+ * в фоне и не должны проходить через контекст персистентности.
+ */
+public interface ChangeEventFeedRepository {
+
+    /**
+     * Присваивает номера очередной порции зафиксированных событий. Должен вызываться в транзакции:
+     * номера выдаются под блокировкой строки счётчика, поэтому relay на разных узлах не перемежаются.
+     *
+     * @return число событий в порции
+     */
+    int assignSequences(int batchSize);
+
+    List<ChangeEventDto> findPublishedAfter(long sequence, int limit);
+
+    long findLastSequence();
+
+    /**
+     * @return наибольший номер удалённого события, 0 - удалений не было
+     */
+    long findPurgedSequence();
+
+    /**
+     * Удаляет начало ленты до последнего события старше before включительно, без пропусков внутри,
+     * и запоминает номер последнего удалённого. Должен вызываться в транзакции.
+     */
+    int deletePublishedBefore(Instant before);
+}
@@ -0,0 +1,102 @@
+package org.javacode.employee_accounting.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.model.dto.response.ChangeEventDto;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.ChangeOperation;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ChangeEventFeedRepositoryImpl implements ChangeEventFeedRepository {
+
+    private static final String SEQUENCE_COUNTER = "change_events";
+    private static final String PURGED_COUNTER = "change_events_purged";
+
+    private static final String LOCK_COUNTER =
+            "SELECT version FROM change_counters WHERE name = ? FOR UPDATE";
+
+    private static final String FIND_PENDING =
+            "SELECT id FROM change_events WHERE sequence IS NULL ORDER BY id LIMIT ?";
+
+    // Номер = id + сдвиг: пропуски допустимы, важно лишь, что номера следующей порции больше.
+    // Незафиксированные события диапазона не видны и получат номер в одном из следующих запусков
+    private static final String ASSIGN = """
+            UPDATE change_events SET sequence = id + ?
+            WHERE sequence IS NULL AND id BETWEEN ? AND ?""";
+
+    private static final String FIND_PUBLISHED = """
+            SELECT sequence, entity, entity_id, operation, data, occurred_at
+            FROM change_events
+            WHERE sequence > ?
+            ORDER BY sequence
+            LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int assignSequences(int batchSize) {
+        List<Long> counter = jdbcTemplate.queryForList(LOCK_COUNTER, Long.class, SEQUENCE_COUNTER);
+        if (counter.isEmpty()) {
+            // Схема без миграций (тесты): строка счётчика создаётся при первом запуске
+            jdbcTemplate.update("INSERT INTO change_counters (name, version) VALUES (?, 0)", SEQUENCE_COUNTER);
+            counter = jdbcTemplate.queryForList(LOCK_COUNTER, Long.class, SEQUENCE_COUNTER);
+        }
+        List<Long> pending = jdbcTemplate.queryForList(FIND_PENDING, Long.class, batchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long fromId = pending.get(0);
+        long toId = pending.get(pending.size() - 1);
+        long offset = counter.get(0) + 1 - fromId;
+        jdbcTemplate.update(ASSIGN, offset, fromId, toId);
+        jdbcTemplate.update("UPDATE change_counters SET version = ? WHERE name = ?", toId + offset, SEQUENCE_COUNTER);
+        return pending.size();
+    }
+
+    @Override
+    public List<ChangeEventDto> findPublishedAfter(long sequence, int limit) {
+        return jdbcTemplate.query(FIND_PUBLISHED, (rs, rowNum) -> new ChangeEventDto(
+                rs.getLong("sequence"),
+                ChangeEntity.valueOf(rs.getString("entity")),
+                rs.getLong("entity_id"),
+                ChangeOperation.valueOf(rs.getString("operation")),
+                rs.getString("data"),
+                rs.getTimestamp("occurred_at").toInstant()), sequence, limit);
+    }
+
+    // Счётчик, а не max(sequence): после удаления старых событий таблица может быть пустой
+    @Override
+    public long findLastSequence() {
+        return findCounter(SEQUENCE_COUNTER);
+    }
+
+    @Override
+    public long findPurgedSequence() {
+        return findCounter(PURGED_COUNTER);
+    }
+
+    // Удаляется префикс по номеру, а не по времени: событие с меньшим номером может быть записано позже
+    @Override
+    public int deletePublishedBefore(Instant before) {
+        Long through = jdbcTemplate.queryForObject(
+                "SELECT max(sequence) FROM change_events WHERE sequence IS NOT NULL AND occurred_at < ?",
+                Long.class, Timestamp.from(before));
+        if (through == null) {
+            return 0;
+        }
+        if (jdbcTemplate.update("UPDATE change_counters SET version = greatest(version, ?) WHERE name = ?",
+                through, PURGED_COUNTER) == 0) {
+            jdbcTemplate.update("INSERT INTO change_counters (name, version) VALUES (?, ?)", PURGED_COUNTER, through);
+        }
+        return jdbcTemplate.update("DELETE FROM change_events WHERE sequence <= ?", through);
+    }
+
+    private long findCounter(String name) {
+        List<Long> counter = jdbcTemplate.queryForList("SELECT version FROM change_counters WHERE name = ?", Long.class, name);
+        return counter.isEmpty() ? 0 : counter.get(0);
+    }
+}
@@ -0,0 +1,9 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.entity.ChangeEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long>, ChangeEventFeedRepository {
+}
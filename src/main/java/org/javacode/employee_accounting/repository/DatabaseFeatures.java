@@ -0,0 +1,28 @@
+package org.javacode.employee_accounting.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Возможности конкретной СУБД. COPY и ON CONFLICT есть только в PostgreSQL,
+ * для H2 в тестах используются переносимые варианты.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabaseFeatures {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return Boolean.TRUE.equals(result);
+    }
+}
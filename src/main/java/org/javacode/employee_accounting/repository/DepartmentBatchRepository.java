@@ -0,0 +1,27 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.entity.Department;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+public interface DepartmentBatchRepository {
+
+    /**
+     * Создаёт недостающие отделы одной командой и возвращает все запрошенные по имени.
+     */
+    UpsertResult upsertAllByName(Collection<String> names);
+
+    /**
+     * Атомарно создаёт отдел, если его нет, и возвращает существующий или созданный.
+     */
+    UpsertResult upsertByName(String name);
+
+    /**
+     * @param departments все запрошенные отделы по имени
+     * @param created     имена отделов, которые вставил именно этот вызов
+     */
+    record UpsertResult(Map<String, Department> departments, Set<String> created) {
+    }
+}
@@ -0,0 +1,96 @@
+package org.javacode.employee_accounting.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.model.entity.Department;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class DepartmentBatchRepositoryImpl implements DepartmentBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DatabaseFeatures databaseFeatures;
+    private final SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Override
+    public UpsertResult upsertAllByName(Collection<String> names) {
+        if (names.isEmpty()) {
+            return new UpsertResult(Map.of(), Set.of());
+        }
+        String[] distinct = names.stream().distinct().toArray(String[]::new);
+        Set<String> created;
+        if (databaseFeatures.isPostgres()) {
+            created = new HashSet<>(jdbcTemplate.query(
+                    "INSERT INTO departments (name, version) SELECT unnest(?), 0 ON CONFLICT (name) DO NOTHING RETURNING name",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", distinct)),
+                    (rs, rowNum) -> rs.getString("name")));
+        } else {
+            Map<String, Department> existing = findAllByName(List.of(distinct));
+            List<String> missing = List.of(distinct).stream()
+                    .filter(name -> !existing.containsKey(name))
+                    .toList();
+            jdbcTemplate.batchUpdate("INSERT INTO departments (name, version) VALUES (?, 0)", missing, missing.size(),
+                    (ps, name) -> ps.setString(1, name));
+            created = new HashSet<>(missing);
+        }
+        secondLevelCacheEvictor.afterJdbcInsert();
+        return new UpsertResult(findAllByName(List.of(distinct)), created);
+    }
+
+    @Override
+    public UpsertResult upsertByName(String name) {
+        if (!databaseFeatures.isPostgres()) {
+            return upsertAllByName(List.of(name));
+        }
+        // Вставка и чтение за один запрос. Если конкурентная вставка закоммичена уже после
+        // снимка этого запроса, ON CONFLICT её видит, а SELECT - нет: тогда читаем повторно
+        List<Department> departments = new ArrayList<>();
+        Set<String> created = new HashSet<>();
+        jdbcTemplate.query("""
+                        WITH inserted AS (
+                            INSERT INTO departments (name, version) VALUES (?, 0) ON CONFLICT (name) DO NOTHING RETURNING id, name, version
+                        )
+                        SELECT id, name, version, true AS created FROM inserted
+                        UNION ALL
+                        SELECT id, name, version, false AS created FROM departments WHERE name = ?""",
+                rs -> {
+                    departments.add(mapDepartment(rs));
+                    if (rs.getBoolean("created")) {
+                        created.add(name);
+                    }
+                }, name, name);
+        secondLevelCacheEvictor.afterJdbcInsert();
+        return departments.isEmpty()
+                ? new UpsertResult(findAllByName(List.of(name)), created)
+                : new UpsertResult(Map.of(name, departments.get(0)), created);
+    }
+
+    private Map<String, Department> findAllByName(List<String> names) {
+        Map<String, Department> departments = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT id, name, version FROM departments WHERE name IN (:names)",
+                Map.of("names", names),
+                rs -> {
+                    departments.put(rs.getString("name"), mapDepartment(rs));
+                });
+        return departments;
+    }
+
+    private static Department mapDepartment(ResultSet rs) throws SQLException {
+        return Department.builder()
+                .id(rs.getInt("id"))
+                .name(rs.getString("name"))
+                .version(rs.getLong("version"))
+                .build();
+    }
+}
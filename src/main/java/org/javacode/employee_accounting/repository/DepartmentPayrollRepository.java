@@ -0,0 +1,14 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.dto.response.DepartmentPayrollDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface DepartmentPayrollRepository {
+
+    /**
+     * Численность, фонд оплаты, средняя, медиана и p90 зарплаты по отделам страницы
+     * и по ролям внутри них. Отделы упорядочены по имени, сортировка из pageable не используется.
+     */
+    Page<DepartmentPayrollDto> findPayroll(Pageable pageable);
+}
@@ -0,0 +1,178 @@
+package org.javacode.employee_accounting.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.model.dto.response.DepartmentPayrollDto;
+import org.javacode.employee_accounting.model.dto.response.RolePayrollDto;
+import org.javacode.employee_accounting.model.entity.Role;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class DepartmentPayrollRepositoryImpl implements DepartmentPayrollRepository {
+
+    private static final BigDecimal MEDIAN = new BigDecimal("0.5");
+    private static final BigDecimal P90 = new BigDecimal("0.9");
+
+    private static final String PAGE_QUERY =
+            "SELECT id, name FROM departments ORDER BY name, id LIMIT :limit OFFSET :offset";
+
+    // Итоги по отделу и по ролям за один проход, входные данные читаются
+    // из индекса idx_employees_department_id_role_salary
+    private static final String PAYROLL_QUERY = """
+            SELECT department_id, role, GROUPING(role) AS department_total,
+                   count(*) AS headcount,
+                   sum(salary) AS total_payroll,
+                   avg(salary) AS average_salary,
+                   percentile_cont(0.5) WITHIN GROUP (ORDER BY salary) AS median_salary,
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY salary) AS p90_salary
+            FROM employees
+            WHERE department_id IN (:ids)
+            GROUP BY GROUPING SETS ((department_id), (department_id, role))""";
+
+    private static final String AGGREGATE_QUERY = """
+            SELECT department_id, role, count(*) AS headcount, sum(salary) AS total_payroll
+            FROM employees
+            WHERE department_id IN (:ids)
+            GROUP BY department_id, role""";
+
+    // Переносимая замена percentile_cont: из каждой группы выбираются только строки,
+    // между которыми интерполируются медиана и p90
+    private static final String RANKED_QUERY = """
+            SELECT department_id, role, salary, rn, cnt
+            FROM (SELECT department_id, %1$s AS role, salary,
+                         ROW_NUMBER() OVER (PARTITION BY %2$s ORDER BY salary) AS rn,
+                         COUNT(*) OVER (PARTITION BY %2$s) AS cnt
+                  FROM employees
+                  WHERE department_id IN (:ids)) r
+            WHERE rn IN (FLOOR((cnt - 1) * 0.5) + 1, CEILING((cnt - 1) * 0.5) + 1,
+                         FLOOR((cnt - 1) * 0.9) + 1, CEILING((cnt - 1) * 0.9) + 1)""";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DatabaseFeatures databaseFeatures;
+
+    @Override
+    public Page<DepartmentPayrollDto> findPayroll(Pageable pageable) {
+        List<DepartmentRef> departments = namedParameterJdbcTemplate.query(PAGE_QUERY,
+                new MapSqlParameterSource()
+                        .addValue("limit", pageable.getPageSize())
+                        .addValue("offset", pageable.getOffset()),
+                (rs, rowNum) -> new DepartmentRef(rs.getInt("id"), rs.getString("name")));
+        List<DepartmentPayrollDto> content = new ArrayList<>();
+        if (!departments.isEmpty()) {
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids",
+                    departments.stream().map(DepartmentRef::id).toList());
+            Map<GroupKey, Stats> stats = databaseFeatures.isPostgres()
+                    ? findStatsPostgres(ids)
+                    : findStatsFallback(ids);
+            departments.forEach(department -> content.add(toDto(department, stats)));
+        }
+        return PageableExecutionUtils.getPage(content, pageable, () -> namedParameterJdbcTemplate.getJdbcTemplate()
+                .queryForObject("SELECT count(*) FROM departments", Long.class));
+    }
+
+    private Map<GroupKey, Stats> findStatsPostgres(MapSqlParameterSource ids) {
+        Map<GroupKey, Stats> stats = new HashMap<>();
+        namedParameterJdbcTemplate.query(PAYROLL_QUERY, ids, rs -> {
+            Role role = rs.getInt("department_total") == 1 ? null : Role.valueOf(rs.getString("role"));
+            stats.put(new GroupKey(rs.getInt("department_id"), role), new Stats(
+                    rs.getLong("headcount"),
+                    rs.getDouble("total_payroll"),
+                    rs.getDouble("average_salary"),
+                    rs.getDouble("median_salary"),
+                    rs.getDouble("p90_salary")));
+        });
+        return stats;
+    }
+
+    private Map<GroupKey, Stats> findStatsFallback(MapSqlParameterSource ids) {
+        Map<GroupKey, long[]> headcounts = new HashMap<>();
+        Map<GroupKey, Double> totals = new HashMap<>();
+        namedParameterJdbcTemplate.query(AGGREGATE_QUERY, ids, rs -> {
+            int departmentId = rs.getInt("department_id");
+            long headcount = rs.getLong("headcount");
+            double total = rs.getDouble("total_payroll");
+            GroupKey roleKey = new GroupKey(departmentId, Role.valueOf(rs.getString("role")));
+            GroupKey departmentKey = new GroupKey(departmentId, null);
+            headcounts.put(roleKey, new long[]{headcount});
+            totals.put(roleKey, total);
+            headcounts.computeIfAbsent(departmentKey, key -> new long[1])[0] += headcount;
+            totals.merge(departmentKey, total, Double::sum);
+        });
+
+        Map<GroupKey, Map<Long, Double>> salariesByRank = new HashMap<>();
+        namedParameterJdbcTemplate.query(RANKED_QUERY.formatted("CAST(NULL AS VARCHAR(255))", "department_id"), ids,
+                (RowCallbackHandler) rs -> collectRank(rs, salariesByRank));
+        namedParameterJdbcTemplate.query(RANKED_QUERY.formatted("role", "department_id, role"), ids,
+                (RowCallbackHandler) rs -> collectRank(rs, salariesByRank));
+
+        Map<GroupKey, Stats> stats = new HashMap<>();
+        headcounts.forEach((key, headcount) -> {
+            long count = headcount[0];
+            double total = totals.get(key);
+            Map<Long, Double> ranks = salariesByRank.get(key);
+            stats.put(key, new Stats(count, total, total / count,
+                    interpolate(ranks, count, MEDIAN), interpolate(ranks, count, P90)));
+        });
+        return stats;
+    }
+
+    private static void collectRank(ResultSet rs, Map<GroupKey, Map<Long, Double>> salariesByRank)
+            throws SQLException {
+        String role = rs.getString("role");
+        GroupKey key = new GroupKey(rs.getInt("department_id"), role == null ? null : Role.valueOf(role));
+        salariesByRank.computeIfAbsent(key, k -> new HashMap<>()).put(rs.getLong("rn"), rs.getDouble("salary"));
+    }
+
+    // Та же линейная интерполяция, что и в percentile_cont: позиция (n - 1) * p считается
+    // точно, чтобы совпасть с номерами строк, выбранными в RANKED_QUERY
+    private static double interpolate(Map<Long, Double> salariesByRank, long count, BigDecimal fraction) {
+        BigDecimal position = BigDecimal.valueOf(count - 1).multiply(fraction);
+        BigDecimal lower = position.setScale(0, RoundingMode.FLOOR);
+        double lowerSalary = salariesByRank.get(lower.longValue() + 1);
+        double upperSalary = salariesByRank.get(position.setScale(0, RoundingMode.CEILING).longValue() + 1);
+        return lowerSalary + position.subtract(lower).doubleValue() * (upperSalary - lowerSalary);
+    }
+
+    private static DepartmentPayrollDto toDto(DepartmentRef department, Map<GroupKey, Stats> stats) {
+        List<RolePayrollDto> roles = stats.entrySet().stream()
+                .filter(entry -> entry.getKey().departmentId() == department.id() && entry.getKey().role() != null)
+                .sorted(Comparator.comparing(entry -> entry.getKey().role()))
+                .map(entry -> {
+                    Stats role = entry.getValue();
+                    return new RolePayrollDto(entry.getKey().role(), role.headcount(), role.totalPayroll(),
+                            role.averageSalary(), role.medianSalary(), role.p90Salary());
+                })
+                .toList();
+        Stats total = stats.get(new GroupKey(department.id(), null));
+        if (total == null) {
+            return new DepartmentPayrollDto(department.name(), 0, 0, null, null, null, roles);
+        }
+        return new DepartmentPayrollDto(department.name(), total.headcount(), total.totalPayroll(),
+                total.averageSalary(), total.medianSalary(), total.p90Salary(), roles);
+    }
+
+    private record DepartmentRef(int id, String name) {
+    }
+
+    // role == null - итог по отделу
+    private record GroupKey(int departmentId, Role role) {
+    }
+
+    private record Stats(long headcount, double totalPayroll, double averageSalary,
+                         double medianSalary, double p90Salary) {
+    }
+}
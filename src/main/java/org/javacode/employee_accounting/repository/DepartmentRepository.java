@@ -1,11 +1,49 @@
 package org.javacode.employee_accounting.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.javacode.employee_accounting.model.dto.response.DepartmentResponseDto;
+import org.javacode.employee_accounting.model.dto.response.DepartmentSyncDto;
 import org.javacode.employee_accounting.model.entity.Department;
+import org.javacode.employee_accounting.model.projections.DepartmentVersionProjection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface DepartmentRepository extends JpaRepository<Department, Integer> {
+public interface DepartmentRepository extends JpaRepository<Department, Integer>, DepartmentBatchRepository,
+        DepartmentPayrollRepository {
 
     Department findByName(String name);
+
+    @Query(value = "SELECT new org.javacode.employee_accounting.model.dto.response.DepartmentResponseDto(" +
+            "d.name, coalesce(s.headcount, 0L)) FROM Department d LEFT JOIN DepartmentStats s ON s.departmentId = d.id",
+            countQuery = "SELECT count(d) FROM Department d")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<DepartmentResponseDto> findAllResponses(Pageable pageable);
+
+    @Query("SELECT d.version AS version, coalesce(s.headcount, 0L) AS headcount " +
+            "FROM Department d LEFT JOIN DepartmentStats s ON s.departmentId = d.id WHERE d.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<DepartmentVersionProjection> findVersionById(Integer id);
+
+    Window<Department> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT new org.javacode.employee_accounting.model.dto.response.DepartmentSyncDto(d.id, d.name, d.updatedAt) " +
+            "FROM Department d " +
+            "WHERE d.updatedAt < :horizon " +
+            "AND (d.updatedAt > :afterTimestamp OR (d.updatedAt = :afterTimestamp AND d.id > :afterId)) " +
+            "ORDER BY d.updatedAt, d.id")
+    List<DepartmentSyncDto> findUpdatedBetween(Instant afterTimestamp, int afterId, Instant horizon, Limit limit);
 }
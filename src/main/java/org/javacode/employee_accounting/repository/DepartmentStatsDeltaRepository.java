@@ -0,0 +1,39 @@
+package org.javacode.employee_accounting.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface DepartmentStatsDeltaRepository {
+
+    /**
+     * Прибавляет приращения к статистике отделов. Выполняется в транзакции вызывающего кода,
+     * строки блокируются в порядке id отдела.
+     */
+    void applyDeltas(Map<Integer, Delta> deltas);
+
+    /**
+     * Создаёт недостающие строки статистики и удаляет строки удалённых отделов.
+     */
+    void synchronizeDepartments();
+
+    /**
+     * Отделы, у которых статистика не совпадает с пересчётом по employees.
+     */
+    List<Integer> findDrifted(double salaryTolerance);
+
+    /**
+     * Пересчитывает статистику отдела под блокировкой её строки.
+     */
+    void recount(Integer departmentId);
+
+    record Delta(long headcount, double totalSalary) {
+
+        public Delta plus(Delta other) {
+            return new Delta(headcount + other.headcount, totalSalary + other.totalSalary);
+        }
+
+        public boolean isZero() {
+            return headcount == 0 && totalSalary == 0;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.javacode.employee_accounting.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.javacode.employee_accounting.model.entity.DepartmentStats;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class DepartmentStatsDeltaRepositoryImpl implements DepartmentStatsDeltaRepository {
+
+    private static final String UPSERT_DELTA = """
+            INSERT INTO department_stats (department_id, headcount, total_salary)
+            VALUES (:departmentId, :headcount, :totalSalary)
+            ON CONFLICT (department_id) DO UPDATE
+                SET headcount = department_stats.headcount + EXCLUDED.headcount,
+                    total_salary = department_stats.total_salary + EXCLUDED.total_salary""";
+
+    private static final String UPDATE_DELTA = """
+            UPDATE department_stats
+            SET headcount = headcount + :headcount, total_salary = total_salary + :totalSalary
+            WHERE department_id = :departmentId""";
+
+    private static final String INSERT_DELTA = """
+            INSERT INTO department_stats (department_id, headcount, total_salary)
+            VALUES (:departmentId, :headcount, :totalSalary)""";
+
+    private static final String INSERT_MISSING = """
+            INSERT INTO department_stats (department_id, headcount, total_salary)
+            SELECT d.id, 0, 0 FROM departments d
+            WHERE NOT EXISTS (SELECT 1 FROM department_stats s WHERE s.department_id = d.id)""";
+
+    private static final String DELETE_ORPHANS =
+            "DELETE FROM department_stats WHERE department_id NOT IN (SELECT id FROM departments)";
+
+    private static final String FIND_DRIFTED = """
+            SELECT s.department_id
+            FROM department_stats s
+                     LEFT JOIN (SELECT department_id, count(*) AS headcount, sum(salary) AS total_salary
+                                FROM employees
+                                WHERE department_id IS NOT NULL
+                                GROUP BY department_id) a ON a.department_id = s.department_id
+            WHERE s.headcount <> coalesce(a.headcount, 0)
+               OR abs(s.total_salary - coalesce(a.total_salary, 0)) > :tolerance
+            ORDER BY s.department_id""";
+
+    private static final String LOCK =
+            "SELECT department_id FROM department_stats WHERE department_id = :departmentId FOR UPDATE";
+
+    private static final String RECOUNT = """
+            UPDATE department_stats
+            SET headcount = (SELECT count(*) FROM employees WHERE department_id = :departmentId),
+                total_salary = (SELECT coalesce(sum(salary), 0) FROM employees WHERE department_id = :departmentId)
+            WHERE department_id = :departmentId""";
+
+    private final EntityManager entityManager;
+    private final DatabaseFeatures databaseFeatures;
+
+    @Override
+    public void applyDeltas(Map<Integer, Delta> deltas) {
+        // Единый порядок блокировок: транзакции, затронувшие одни и те же отделы, не взаимоблокируются
+        new TreeMap<>(deltas).forEach((departmentId, delta) -> {
+            if (delta.isZero()) {
+                return;
+            }
+            if (databaseFeatures.isPostgres()) {
+                applyDelta(UPSERT_DELTA, departmentId, delta);
+            } else if (applyDelta(UPDATE_DELTA, departmentId, delta) == 0) {
+                applyDelta(INSERT_DELTA, departmentId, delta);
+            }
+        });
+    }
+
+    @Override
+    public void synchronizeDepartments() {
+        statement(databaseFeatures.isPostgres() ? INSERT_MISSING + " ON CONFLICT (department_id) DO NOTHING" : INSERT_MISSING)
+                .executeUpdate();
+        statement(DELETE_ORPHANS).executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Integer> findDrifted(double salaryTolerance) {
+        return ((List<Number>) entityManager.createNativeQuery(FIND_DRIFTED)
+                .setParameter("tolerance", salaryTolerance)
+                .getResultList()).stream()
+                .map(Number::intValue)
+                .toList();
+    }
+
+    @Override
+    public void recount(Integer departmentId) {
+        // Пересчёт отдельным запросом после блокировки: его снимок уже включает
+        // сотрудников из транзакций, которые держали строку до нас
+        entityManager.createNativeQuery(LOCK)
+                .setParameter("departmentId", departmentId)
+                .getResultList();
+        statement(RECOUNT)
+                .setParameter("departmentId", departmentId)
+                .executeUpdate();
+    }
+
+    private int applyDelta(String sql, Integer departmentId, Delta delta) {
+        return statement(sql)
+                .setParameter("departmentId", departmentId)
+                .setParameter("headcount", delta.headcount())
+                .setParameter("totalSalary", delta.totalSalary())
+                .executeUpdate();
+    }
+
+    // Синхронизация по сущности: кэш запросов сбрасывается только для результатов с department_stats
+    private NativeQuery<?> statement(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(DepartmentStats.class);
+    }
+}
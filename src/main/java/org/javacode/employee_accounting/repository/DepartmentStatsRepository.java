@@ -0,0 +1,18 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.dto.response.DepartmentStatsDto;
+import org.javacode.employee_accounting.model.entity.DepartmentStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DepartmentStatsRepository extends JpaRepository<DepartmentStats, Integer>, DepartmentStatsDeltaRepository {
+
+    @Query("SELECT new org.javacode.employee_accounting.model.dto.response.DepartmentStatsDto(" +
+            "d.name, coalesce(s.headcount, 0L), coalesce(s.totalSalary, 0.0)) " +
+            "FROM Department d LEFT JOIN DepartmentStats s ON s.departmentId = d.id WHERE d.id = :departmentId")
+    Optional<DepartmentStatsDto> findStatsByDepartmentId(Integer departmentId);
+}
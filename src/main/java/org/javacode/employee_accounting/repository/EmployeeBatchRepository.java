@@ -0,0 +1,23 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.entity.Employee;
+
+import java.util.List;
+import java.util.Set;
+
+public interface EmployeeBatchRepository {
+
+    /**
+     * Вставка пакетами JDBC в обход persistence context.
+     * id назначает БД, поэтому сущности после вызова остаются без id.
+     */
+    void insertAll(List<Employee> employees);
+
+    /**
+     * Загрузка через COPY во временную таблицу и перенос в employees.
+     * Строки с уже существующим username пропускаются.
+     *
+     * @return username фактически добавленных сотрудников
+     */
+    Set<String> importAll(List<Employee> employees);
+}
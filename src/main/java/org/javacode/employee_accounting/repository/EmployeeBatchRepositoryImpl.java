@@ -0,0 +1,110 @@
+package org.javacode.employee_accounting.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.model.entity.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class EmployeeBatchRepositoryImpl implements EmployeeBatchRepository {
+
+    private static final String INSERT_EMPLOYEE = "INSERT INTO employees " +
+            "(username, password, email, role, first_name, last_name, position, salary, " +
+            "is_account_non_locked, failed_login_attempts, security_version, version, department_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE employees_import (" +
+            "username VARCHAR(255), password VARCHAR(255), email VARCHAR(255), role VARCHAR(255), " +
+            "first_name VARCHAR(255), last_name VARCHAR(255), position VARCHAR(255), " +
+            "salary DOUBLE PRECISION, department_id INTEGER) ON COMMIT DROP";
+
+    private static final String COPY_STAGING = "COPY employees_import " +
+            "(username, password, email, role, first_name, last_name, position, salary, department_id) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_STAGING = "INSERT INTO employees " +
+            "(username, password, email, role, first_name, last_name, position, salary, " +
+            "is_account_non_locked, failed_login_attempts, security_version, version, department_id) " +
+            "SELECT username, password, email, role, first_name, last_name, position, salary, true, 0, 0, 0, department_id " +
+            "FROM employees_import ON CONFLICT (username) DO NOTHING RETURNING username";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseFeatures databaseFeatures;
+    private final SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Value("${employee.bulk.jdbc-batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void insertAll(List<Employee> employees) {
+        jdbcTemplate.batchUpdate(INSERT_EMPLOYEE, employees, batchSize, (ps, employee) -> {
+            ps.setString(1, employee.getUsername());
+            ps.setString(2, employee.getPassword());
+            ps.setString(3, employee.getEmail());
+            ps.setString(4, employee.getRole().name());
+            ps.setString(5, employee.getFirstName());
+            ps.setString(6, employee.getLastName());
+            ps.setString(7, employee.getPosition());
+            ps.setDouble(8, employee.getSalary());
+            ps.setBoolean(9, employee.isAccountNonLocked());
+            ps.setInt(10, employee.getFailedLoginAttempts());
+            ps.setLong(11, employee.getSecurityVersion());
+            ps.setInt(12, employee.getDepartment().getId());
+        });
+        secondLevelCacheEvictor.afterJdbcInsert();
+    }
+
+    // Должен вызываться в транзакции: временная таблица удаляется при commit
+    @Override
+    public Set<String> importAll(List<Employee> employees) {
+        if (!databaseFeatures.isPostgres()) {
+            insertAll(employees);
+            return employees.stream().map(Employee::getUsername).collect(Collectors.toSet());
+        }
+
+        jdbcTemplate.execute(CREATE_STAGING);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn(COPY_STAGING, new StringReader(toCsv(employees)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Set<String> imported = new HashSet<>(jdbcTemplate.queryForList(MERGE_STAGING, String.class));
+        secondLevelCacheEvictor.afterJdbcInsert();
+        return imported;
+    }
+
+    private static String toCsv(List<Employee> employees) throws IOException {
+        StringBuilder csv = new StringBuilder(employees.size() * 200);
+        try (CSVPrinter printer = new CSVPrinter(csv, CSVFormat.DEFAULT)) {
+            for (Employee employee : employees) {
+                printer.printRecord(
+                        employee.getUsername(),
+                        employee.getPassword(),
+                        employee.getEmail(),
+                        employee.getRole().name(),
+                        employee.getFirstName(),
+                        employee.getLastName(),
+                        employee.getPosition(),
+                        employee.getSalary(),
+                        employee.getDepartment().getId());
+            }
+        }
+        return csv.toString();
+    }
+}
@@ -1,23 +1,147 @@
 package org.javacode.employee_accounting.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeSyncDto;
 import org.javacode.employee_accounting.model.entity.Employee;
+import org.javacode.employee_accounting.model.projections.EmployeeAccountProjection;
+import org.javacode.employee_accounting.model.projections.EmployeeIdentity;
+import org.javacode.employee_accounting.model.projections.EmployeeNameProjection;
 import org.javacode.employee_accounting.model.projections.EmployeeProjection;
+import org.javacode.employee_accounting.model.projections.EmployeeVersionProjection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee>,
+        EmployeeBatchRepository,
+        EmployeeStreamRepository, EmployeeSearchRepository {
 
-    @Query("SELECT e FROM Employee e")
+    String EMPLOYEE_PROJECTION_QUERY = "SELECT concat(e.firstName, ' ', e.lastName) AS fullName, " +
+            "e.position AS position, d.name AS departmentName " +
+            "FROM Employee e LEFT JOIN e.department d ORDER BY e.id";
+
+    @Query(EMPLOYEE_PROJECTION_QUERY)
     List<EmployeeProjection> findAllEmployeeProjection();
 
+    // Серверный курсор: строки читаются порциями по fetchSize, сущности не создаются
+    @Query(EMPLOYEE_PROJECTION_QUERY)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<EmployeeProjection> streamAllEmployeeProjection();
+
+    @Query("SELECT e.firstName AS firstName, e.lastName AS lastName, e.position AS position FROM Employee e")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<EmployeeNameProjection> streamAllNames();
+
+    @Query("SELECT e.username AS username, e.email AS email FROM Employee e")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<EmployeeIdentity> streamAllIdentities();
+
+    // Вход и проверка блокировки читают строку из БД, минуя кэш второго уровня:
+    // счётчик неудачных попыток пишется через JDBC. Свежая версия кладётся в кэш
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
     Optional<Employee> findByUsername(String username);
 
-    boolean existsByUsername(String username);
+    // Чтение сразу в DTO одним запросом с join: без сущностей в контексте и без отдельных select department
+    String EMPLOYEE_RESPONSE_SELECT = "SELECT new org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto(" +
+            "e.firstName, e.lastName, e.username, e.position, e.salary, d.name) " +
+            "FROM Employee e LEFT JOIN e.department d";
+
+    @Query(EMPLOYEE_RESPONSE_SELECT + " WHERE e.username = :username")
+    Optional<EmployeeResponseDto> findResponseByUsername(String username);
+
+    @Query(value = EMPLOYEE_RESPONSE_SELECT, countQuery = "SELECT count(e) FROM Employee e")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<EmployeeResponseDto> findAllResponses(Pageable pageable);
+
+    @Query("SELECT e.isAccountNonLocked FROM Employee e WHERE e.id = :id")
+    Optional<Boolean> findAccountNonLockedById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "department")
+    Page<Employee> findAll(Specification<Employee> specification, Pageable pageable);
+
+    @EntityGraph(attributePaths = "department")
+    Window<Employee> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT e.version AS version, d.id AS departmentId, d.version AS departmentVersion " +
+            "FROM Employee e LEFT JOIN e.department d WHERE e.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<EmployeeVersionProjection> findVersionById(Long id);
+
+    @Query("SELECT e.securityVersion FROM Employee e WHERE e.username = :username")
+    Optional<Long> findSecurityVersionByUsername(String username);
+
+    @Query("SELECT e.id AS id, e.username AS username FROM Employee e " +
+            "WHERE e.id IN :ids AND e.isAccountNonLocked <> :accountNonLocked")
+    List<EmployeeAccountProjection> findAccountsToBlock(Collection<Long> ids, boolean accountNonLocked);
+
+    // Постранично по id: заблокированные в предыдущих порциях строки сюда уже не попадают
+    @Query("SELECT e.id AS id, e.username AS username FROM Employee e " +
+            "WHERE e.department.name = :department AND e.id > :afterId AND e.isAccountNonLocked <> :accountNonLocked " +
+            "ORDER BY e.id")
+    List<EmployeeAccountProjection> findAccountsToBlock(String department, Long afterId, boolean accountNonLocked,
+                                                        Limit limit);
+
+    @Query("SELECT new org.javacode.employee_accounting.model.dto.response.EmployeeSyncDto(" +
+            "e.id, e.firstName, e.lastName, e.username, e.position, e.salary, d.id, e.updatedAt) " +
+            "FROM Employee e LEFT JOIN e.department d " +
+            "WHERE e.updatedAt < :horizon " +
+            "AND (e.updatedAt > :afterTimestamp OR (e.updatedAt = :afterTimestamp AND e.id > :afterId)) " +
+            "ORDER BY e.updatedAt, e.id")
+    List<EmployeeSyncDto> findUpdatedBetween(Instant afterTimestamp, long afterId, Instant horizon, Limit limit);
+
+    // Идентификаторы строк, вставленных пакетно через JDBC
+    @Query("SELECT e.id AS id, e.username AS username FROM Employee e WHERE e.username IN :usernames")
+    List<EmployeeAccountProjection> findAccountsByUsernameIn(Collection<String> usernames);
+
+    @Modifying
+    @Query("UPDATE Employee e SET e.isAccountNonLocked = :accountNonLocked, e.securityVersion = e.securityVersion + 1, " +
+            "e.version = e.version + 1 " +
+            "WHERE e.id IN :ids AND e.isAccountNonLocked <> :accountNonLocked")
+    int updateAccountNonLocked(Collection<Long> ids, boolean accountNonLocked);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Employee e SET e.failedLoginAttempts = 0 WHERE e.username = :username AND e.failedLoginAttempts <> 0")
+    int resetFailedLoginAttempts(String username);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Employee e SET e.isAccountNonLocked = false, e.failedLoginAttempts = :attempts, " +
+            "e.securityVersion = e.securityVersion + 1, e.version = e.version + 1 WHERE e.username = :username")
+    int lockAccount(String username, int attempts);
 
-    boolean existsByEmail(String email);
+    @Query("SELECT e.username AS username, e.email AS email FROM Employee e " +
+            "WHERE e.username IN :usernames OR e.email IN :emails")
+    List<EmployeeIdentity> findIdentities(Collection<String> usernames, Collection<String> emails);
 }
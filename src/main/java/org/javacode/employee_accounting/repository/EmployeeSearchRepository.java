@@ -0,0 +1,14 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface EmployeeSearchRepository {
+
+    /**
+     * Поиск по имени, фамилии, username, email, должности и названию отдела.
+     * В PostgreSQL результаты упорядочены по релевантности, в остальных СУБД - по id.
+     */
+    Page<EmployeeResponseDto> search(String query, Pageable pageable);
+}
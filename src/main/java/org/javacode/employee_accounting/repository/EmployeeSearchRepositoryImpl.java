@@ -0,0 +1,113 @@
+package org.javacode.employee_accounting.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class EmployeeSearchRepositoryImpl implements EmployeeSearchRepository {
+
+    private static final String SEARCH_TEXT =
+            "employee_search_text(e.first_name, e.last_name, e.username, e.email, e.position)";
+
+    // Выражения совпадают с индексами из V4__employee_search.sql. Условия по сотруднику и по отделу
+    // разнесены по двум веткам UNION: OR между таблицами через LEFT JOIN не даёт использовать GIN-индексы,
+    // а так каждая ветка сводится к BitmapOr по индексам своей таблицы
+    private static final String MATCHED_IDS = "SELECT e.id FROM employees e " +
+            "WHERE to_tsvector('simple', " + SEARCH_TEXT + ") @@ websearch_to_tsquery('simple', :query) " +
+            "OR :text <% " + SEARCH_TEXT + " " +
+            "UNION " +
+            "SELECT e.id FROM employees e WHERE e.department_id IN (SELECT d.id FROM departments d " +
+            "WHERE to_tsvector('simple', lower(d.name)) @@ websearch_to_tsquery('simple', :query) " +
+            "OR lower(d.name) % :text)";
+
+    private static final String SEARCH_QUERY = "SELECT e.first_name, e.last_name, e.username, e.position, e.salary, " +
+            "d.name AS department_name " +
+            "FROM (" + MATCHED_IDS + ") m JOIN employees e ON e.id = m.id " +
+            "LEFT JOIN departments d ON d.id = e.department_id " +
+            "ORDER BY ts_rank(to_tsvector('simple', " + SEARCH_TEXT + "), websearch_to_tsquery('simple', :query)) " +
+            "+ word_similarity(:text, " + SEARCH_TEXT + ") " +
+            "+ coalesce(similarity(lower(d.name), :text), 0) DESC, e.id " +
+            "LIMIT :limit OFFSET :offset";
+
+    private static final String COUNT_QUERY = "SELECT count(*) FROM (" + MATCHED_IDS + ") m";
+
+    private static final String[] FALLBACK_FIELDS = {
+            "e.firstName", "e.lastName", "e.username", "e.email", "e.position", "d.name"};
+
+    private final EntityManager entityManager;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DatabaseFeatures databaseFeatures;
+
+    @Override
+    public Page<EmployeeResponseDto> search(String query, Pageable pageable) {
+        return databaseFeatures.isPostgres()
+                ? searchPostgres(query, pageable)
+                : searchFallback(query, pageable);
+    }
+
+    private Page<EmployeeResponseDto> searchPostgres(String query, Pageable pageable) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("text", query.toLowerCase(Locale.ROOT))
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+        List<EmployeeResponseDto> content = namedParameterJdbcTemplate.query(SEARCH_QUERY, parameters,
+                (rs, rowNum) -> new EmployeeResponseDto(
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("username"),
+                        rs.getString("position"),
+                        rs.getObject("salary", Double.class),
+                        rs.getString("department_name")));
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> namedParameterJdbcTemplate.queryForObject(COUNT_QUERY, parameters, Long.class));
+    }
+
+    // H2: каждое слово запроса должно встретиться хотя бы в одном из полей, без учёта регистра
+    private Page<EmployeeResponseDto> searchFallback(String query, Pageable pageable) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        String[] terms = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+        for (int i = 0; i < terms.length; i++) {
+            List<String> fieldConditions = new ArrayList<>();
+            for (String field : FALLBACK_FIELDS) {
+                fieldConditions.add("lower(" + field + ") LIKE :term" + i + " ESCAPE '\\'");
+            }
+            conditions.add("(" + String.join(" OR ", fieldConditions) + ")");
+            parameters.put("term" + i, "%" + escapeLike(terms[i]) + "%");
+        }
+        String where = " WHERE " + String.join(" AND ", conditions);
+
+        TypedQuery<EmployeeResponseDto> select = entityManager.createQuery(
+                        EmployeeRepository.EMPLOYEE_RESPONSE_SELECT + where + " ORDER BY e.id", EmployeeResponseDto.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        TypedQuery<Long> count = entityManager.createQuery(
+                "SELECT count(e) FROM Employee e LEFT JOIN e.department d" + where, Long.class);
+        parameters.forEach((name, value) -> {
+            select.setParameter(name, value);
+            count.setParameter(name, value);
+        });
+        return PageableExecutionUtils.getPage(select.getResultList(), pageable, count::getSingleResult);
+    }
+
+    // % и _ в запросе ищутся буквально, а не как шаблоны LIKE
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,59 @@
+package org.javacode.employee_accounting.repository;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
+import org.javacode.employee_accounting.model.entity.Department;
+import org.javacode.employee_accounting.model.entity.Employee;
+import org.javacode.employee_accounting.model.entity.Role;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class EmployeeSpecifications {
+
+    private EmployeeSpecifications() {
+    }
+
+    /**
+     * Условия по всем заданным полям фильтра; незаданные поля не попадают в запрос.
+     */
+    public static Specification<Employee> matching(EmployeeFilterDto filter) {
+        return Specification.where(inDepartment(filter.department()))
+                .and(hasRole(filter.role()))
+                .and(hasPosition(filter.position()))
+                .and(salaryFrom(filter.minSalary()))
+                .and(salaryTo(filter.maxSalary()));
+    }
+
+    // Имя отдела уникально: скалярный подзапрос даёт одно значение department_id
+    // и позволяет читать employees по индексу, а не соединять таблицы
+    public static Specification<Employee> inDepartment(String department) {
+        return department == null ? null
+                : (root, query, builder) -> {
+                    Subquery<Integer> departmentId = query.subquery(Integer.class);
+                    Root<Department> departmentRoot = departmentId.from(Department.class);
+                    departmentId.select(departmentRoot.get("id"))
+                            .where(builder.equal(departmentRoot.get("name"), department));
+                    return builder.equal(root.get("department").get("id"), departmentId);
+                };
+    }
+
+    public static Specification<Employee> hasRole(Role role) {
+        return role == null ? null
+                : (root, query, builder) -> builder.equal(root.get("role"), role);
+    }
+
+    public static Specification<Employee> hasPosition(String position) {
+        return position == null ? null
+                : (root, query, builder) -> builder.equal(root.get("position"), position);
+    }
+
+    public static Specification<Employee> salaryFrom(Double minSalary) {
+        return minSalary == null ? null
+                : (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("salary"), minSalary);
+    }
+
+    public static Specification<Employee> salaryTo(Double maxSalary) {
+        return maxSalary == null ? null
+                : (root, query, builder) -> builder.lessThanOrEqualTo(root.get("salary"), maxSalary);
+    }
+}
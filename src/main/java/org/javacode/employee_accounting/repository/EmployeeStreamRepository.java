@@ -0,0 +1,15 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+
+import java.util.stream.Stream;
+
+public interface EmployeeStreamRepository {
+
+    /**
+     * Однопроходный курсор по сотрудникам, подходящим под фильтр, в порядке id.
+     * Поток нужно закрыть и читать внутри транзакции.
+     */
+    Stream<EmployeeResponseDto> streamResponses(EmployeeFilterDto filter);
+}
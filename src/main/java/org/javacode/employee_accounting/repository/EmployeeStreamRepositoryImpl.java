@@ -0,0 +1,58 @@
+package org.javacode.employee_accounting.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class EmployeeStreamRepositoryImpl implements EmployeeStreamRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // В запрос попадают только заданные условия, чтобы план использовал подходящий индекс
+    @Override
+    public Stream<EmployeeResponseDto> streamResponses(EmployeeFilterDto filter) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.department() != null) {
+            conditions.add("d.name = :department");
+            parameters.put("department", filter.department());
+        }
+        if (filter.role() != null) {
+            conditions.add("e.role = :role");
+            parameters.put("role", filter.role());
+        }
+        if (filter.position() != null) {
+            conditions.add("e.position = :position");
+            parameters.put("position", filter.position());
+        }
+        if (filter.minSalary() != null) {
+            conditions.add("e.salary >= :minSalary");
+            parameters.put("minSalary", filter.minSalary());
+        }
+        if (filter.maxSalary() != null) {
+            conditions.add("e.salary <= :maxSalary");
+            parameters.put("maxSalary", filter.maxSalary());
+        }
+
+        String jpql = EmployeeRepository.EMPLOYEE_RESPONSE_SELECT
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY e.id";
+        TypedQuery<EmployeeResponseDto> query = entityManager.createQuery(jpql, EmployeeResponseDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        parameters.forEach(query::setParameter);
+        return query.getResultStream();
+    }
+}
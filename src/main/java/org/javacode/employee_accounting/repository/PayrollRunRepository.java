@@ -0,0 +1,26 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.dto.response.PayrollDepartmentTotalDto;
+import org.javacode.employee_accounting.model.entity.PayrollRun;
+import org.javacode.employee_accounting.model.entity.PayrollRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
+
+    @Query("SELECT new org.javacode.employee_accounting.model.dto.response.PayrollDepartmentTotalDto(" +
+            "d.name, t.headcount, t.totalAmount) " +
+            "FROM PayrollDepartmentTotal t LEFT JOIN Department d ON d.id = t.departmentId " +
+            "WHERE t.runId = :runId ORDER BY d.name NULLS LAST")
+    List<PayrollDepartmentTotalDto> findDepartmentTotals(Long runId);
+
+    boolean existsByPeriodAndStatusIn(String period, Collection<PayrollRunStatus> statuses);
+
+    List<PayrollRun> findAllByStatusAndStartedAtBefore(PayrollRunStatus status, Instant startedAt);
+}
@@ -0,0 +1,53 @@
+package org.javacode.employee_accounting.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Запись через JDBC идёт в обход Hibernate, и кэш второго уровня о ней не знает.
+ * После такой записи сбрасываются затронутые регионы, внутри транзакции - после её завершения.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Новые строки не делают устаревшими закэшированные сущности, только результаты запросов
+    public void afterJdbcInsert() {
+        afterCompletion(Cache::evictQueryRegions);
+    }
+
+    public void afterJdbcUpdate(Class<?> entityClass) {
+        afterCompletion(cache -> {
+            cache.evictEntityData(entityClass);
+            cache.evictQueryRegions();
+        });
+    }
+
+    // Изменены столбцы, по которым запросы не фильтруют: достаточно сбросить сами записи
+    public void afterJdbcUpdate(Class<?> entityClass, Collection<?> ids) {
+        afterCompletion(cache -> ids.forEach(id -> cache.evictEntityData(entityClass, id)));
+    }
+
+    private void afterCompletion(Consumer<Cache> eviction) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.accept(cache);
+                }
+            });
+        } else {
+            eviction.accept(cache);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.javacode.employee_accounting.repository;
+
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.Tombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    @Query("SELECT t FROM Tombstone t " +
+            "WHERE t.entity = :entity AND t.deletedAt < :horizon " +
+            "AND (t.deletedAt > :afterTimestamp OR (t.deletedAt = :afterTimestamp AND t.id > :afterId)) " +
+            "ORDER BY t.deletedAt, t.id")
+    List<Tombstone> findDeletedBetween(ChangeEntity entity, Instant afterTimestamp, long afterId, Instant horizon,
+                                       Limit limit);
+
+    // Порция ограничена, чтобы очистка не держала долгих блокировок и не раздувала журнал
+    @Modifying
+    @Query(value = "DELETE FROM tombstones WHERE id IN " +
+            "(SELECT id FROM tombstones WHERE deleted_at < :before LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(Instant before, int limit);
+}
@@ -0,0 +1,90 @@
+package org.javacode.employee_accounting.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * BCrypt, выполняемый в {@link PasswordHashingExecutor}.
+ * Если сложность не задана явно, она подбирается при старте под целевую задержку.
+ * upgradeEncoding сообщает о хэшах с меньшей сложностью; signIn перехэширует такой
+ * пароль после успешной проверки.
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+    private static final int CALIBRATION_STRENGTH = 8;
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final BCryptPasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+    private final int strength;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public AdaptiveBCryptPasswordEncoder(int strength, PasswordHashingExecutor executor, MeterRegistry meterRegistry) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.executor = executor;
+        this.encodeTimer = Timer.builder("password.hashing.duration")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.duration")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Подбирает наибольшую сложность в [minStrength, maxStrength], при которой
+     * один хэш занимает не больше targetLatency. Каждая ступень удваивает время.
+     */
+    public static int calibrateStrength(Duration targetLatency, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_STRENGTH);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        int strength = CALIBRATION_STRENGTH;
+        long estimated = best;
+        while (strength < maxStrength && estimated * 2 <= targetLatency.toNanos()) {
+            estimated *= 2;
+            strength++;
+        }
+        strength = Math.max(minStrength, Math.min(maxStrength, strength));
+        logger.info(String.format("BCrypt strength calibrated to %d for target latency %d ms",
+                strength, targetLatency.toMillis()));
+        return strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        return executor.executeAll(rawPasswords, rawPassword -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,89 @@
+package org.javacode.employee_accounting.security;
+
+import jakarta.annotation.PreDestroy;
+import org.javacode.employee_accounting.model.entity.Employee;
+import org.javacode.employee_accounting.repository.SecondLevelCacheEvictor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Счётчики неудачных входов в памяти с отложенной пакетной записью в БД.
+ * Инкремент выполняется под блокировкой сегмента ConcurrentHashMap по ключу,
+ * поэтому момент достижения порога определяется точно, а разные пользователи не конкурируют.
+ */
+@Component
+public class FailedLoginCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FailedLoginCounter.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor secondLevelCacheEvictor;
+    private final Map<String, Integer> counters = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public FailedLoginCounter(NamedParameterJdbcTemplate jdbcTemplate, SecondLevelCacheEvictor secondLevelCacheEvictor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCacheEvictor = secondLevelCacheEvictor;
+    }
+
+    /**
+     * @param persistedAttempts значение из БД, используется, если счётчика ещё нет в памяти
+     * @return число неудачных попыток с учётом текущей
+     */
+    public int increment(String username, int persistedAttempts) {
+        int attempts = counters.merge(username, persistedAttempts + 1, (current, ignored) -> current + 1);
+        dirty.add(username);
+        return attempts;
+    }
+
+    public int current(String username, int persistedAttempts) {
+        return counters.getOrDefault(username, persistedAttempts);
+    }
+
+    // Значение уже записано в БД вызывающим кодом (сброс или блокировка)
+    public void clear(String username) {
+        dirty.remove(username);
+        counters.remove(username);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.failed-login.flush-interval-ms:5000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (String username : dirty) {
+            dirty.remove(username);
+            Integer attempts = counters.get(username);
+            if (attempts != null) {
+                batch.add(new Object[]{attempts, username});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.getJdbcOperations()
+                .batchUpdate("UPDATE employees SET failed_login_attempts = ? WHERE username = ?", batch);
+        // Сбрасываются только записи этих сотрудников, а не весь регион employees
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM employees WHERE username IN (:usernames)",
+                Map.of("usernames", batch.stream().map(row -> (String) row[1]).toList()), Long.class);
+        secondLevelCacheEvictor.afterJdbcUpdate(Employee.class, ids);
+        // Записанные и с тех пор не изменившиеся счётчики больше не нужны в памяти
+        batch.forEach(row -> counters.remove((String) row[1], row[0]));
+        logger.info(String.format("Flushed %d failed login counters", batch.size()));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
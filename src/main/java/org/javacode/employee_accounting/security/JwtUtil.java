@@ -1,64 +1,162 @@
 package org.javacode.employee_accounting.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.javacode.employee_accounting.model.entity.Employee;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.function.Function;
+import java.util.HexFormat;
+import java.util.Map;
 
 @Service
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    private SecretKey generateSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
-    }
-
     private final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 часов
     private final long REFRESH_EXPIRATION_TIME = 1000 * 60 * 60 * 24; // 24 часа
+    private static final String ROLE_CLAIM = "role";
+    private static final String SECURITY_VERSION_CLAIM = "sv";
+
+    // Ключ и парсер потокобезопасны, поэтому создаются один раз
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    // Кэш уже проверенных токенов: ключ - SHA-256 от токена, запись живёт до истечения токена
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                   MeterRegistry meterRegistry) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+    }
 
     public String generateJwtToken(UserDetails userDetails) {
         return Jwts.builder()
+                .claims(securityClaims(userDetails))
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(generateSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public String generateRefreshJwtToken(HashMap<String, Object> claims, UserDetails userDetails) {
         return Jwts.builder()
                 .claims(claims)
+                .claims(securityClaims(userDetails))
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + REFRESH_EXPIRATION_TIME))
-                .signWith(generateSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Проверяет подпись и срок действия токена за один разбор.
+     * Повторные вызовы с тем же токеном обслуживаются из кэша без HMAC и base64.
+     *
+     * @throws io.jsonwebtoken.JwtException если токен невалиден или истёк
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified == null) {
+            verified = parse(token);
+            verifiedTokens.put(digest, verified);
+        }
+        if (verified.isExpired()) {
+            verifiedTokens.invalidate(digest);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + verified.expiresAt());
+        }
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return extractClaims(token, Claims::getSubject);
+        return verify(token).username();
     }
 
-    private <T> T extractClaims(String token, Function<Claims, T> claimsTFunction) {
-        return claimsTFunction.apply(Jwts.parser().verifyWith(generateSigningKey()).build().parseSignedClaims(token).getPayload());
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.username().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(verify(token), userDetails);
     }
 
     public boolean isTokenExpired(String token) {
-        return extractClaims(token, Claims::getExpiration).before(new Date());
+        return verify(token).isExpired();
+    }
+
+    private Map<String, Object> securityClaims(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        userDetails.getAuthorities().stream()
+                .findFirst()
+                .ifPresent(authority -> claims.put(ROLE_CLAIM, authority.getAuthority()));
+        if (userDetails instanceof Employee employee) {
+            claims.put(SECURITY_VERSION_CLAIM, employee.getSecurityVersion());
+        }
+        return claims;
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        Number securityVersion = claims.get(SECURITY_VERSION_CLAIM, Number.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(ROLE_CLAIM, String.class),
+                securityVersion == null ? null : securityVersion.longValue(),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant());
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
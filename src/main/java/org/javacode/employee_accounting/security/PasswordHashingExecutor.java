@@ -0,0 +1,110 @@
+package org.javacode.employee_accounting.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.javacode.employee_accounting.exception.PasswordHashingRejectedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Отдельный пул для BCrypt. Очередь ограничена, поэтому при наплыве входов
+ * ожидают хэширования не больше (poolSize + queueCapacity) потоков Tomcat,
+ * а остальные запросы сразу получают 503 и не отнимают потоки у чтения.
+ * Пакетное хэширование (импорт, массовое создание) идёт в собственном пуле,
+ * чтобы длинный пакет не занимал потоки, которых ждёт интерактивный вход.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor bulkExecutor;
+    private final int bulkThreads;
+
+    public PasswordHashingExecutor(@Value("${password.hashing.pool-size:0}") int poolSize,
+                                   @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${password.hashing.bulk-pool-size:0}") int bulkPoolSize,
+                                   MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.bulkThreads = bulkPoolSize > 0 ? bulkPoolSize : Math.max(1, threads / 2);
+        this.executor = createExecutor(threads, queueCapacity, "password-hashing-");
+        this.bulkExecutor = createExecutor(bulkThreads, queueCapacity, "password-hashing-bulk-");
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+        ExecutorServiceMetrics.monitor(meterRegistry, bulkExecutor, "password.hashing.bulk");
+    }
+
+    public <T> T execute(Supplier<T> task) {
+        return await(submit(executor, task));
+    }
+
+    /**
+     * Пакетная обработка: входные данные делятся на столько частей, сколько потоков в пакетном пуле,
+     * поэтому пакет любого размера занимает в очереди не больше мест, чем потоков.
+     */
+    public <T, R> List<R> executeAll(List<T> inputs, Function<T, R> task) {
+        int chunkSize = Math.max(1, (inputs.size() + bulkThreads - 1) / bulkThreads);
+        List<Future<List<R>>> futures = new ArrayList<>();
+        try {
+            for (int from = 0; from < inputs.size(); from += chunkSize) {
+                List<T> chunk = inputs.subList(from, Math.min(inputs.size(), from + chunkSize));
+                futures.add(submit(bulkExecutor, () -> chunk.stream().map(task).toList()));
+            }
+        } catch (PasswordHashingRejectedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        List<R> results = new ArrayList<>(inputs.size());
+        futures.forEach(future -> results.addAll(await(future)));
+        return results;
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads, int queueCapacity, String threadNamePrefix) {
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory(threadNamePrefix),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static <T> Future<T> submit(ThreadPoolExecutor executor, Supplier<T> task) {
+        try {
+            return executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingRejectedException("Too many concurrent password operations, try again later");
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        bulkExecutor.shutdown();
+    }
+}
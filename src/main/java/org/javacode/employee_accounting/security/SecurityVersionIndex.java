@@ -0,0 +1,45 @@
+package org.javacode.employee_accounting.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Индекс отзыва токенов: текущая версия безопасности каждого пользователя.
+ * Версия хранится в БД и увеличивается при блокировке, смене роли и удалении,
+ * поэтому токены, выпущенные до изменения, перестают приниматься на этом узле сразу.
+ */
+@Component
+public class SecurityVersionIndex {
+
+    private final LoadingCache<String, Long> versions;
+
+    public SecurityVersionIndex(EmployeeRepository employeeRepository,
+                                @Value("${jwt.security-version-index.max-size:100000}") long maxSize,
+                                MeterRegistry meterRegistry) {
+        // Отсутствующий пользователь не кэшируется: загрузчик вернёт null
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build(username -> employeeRepository.findSecurityVersionByUsername(username).orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "jwt.security-versions");
+    }
+
+    public boolean isCurrent(String username, long tokenVersion) {
+        Long current = versions.get(username);
+        if (current != null && tokenVersion > current) {
+            // Версию увеличили на другом узле - перечитываем из БД
+            versions.invalidate(username);
+            current = versions.get(username);
+        }
+        return current != null && current == tokenVersion;
+    }
+
+    public void revoke(String username) {
+        versions.invalidate(username);
+    }
+}
@@ -0,0 +1,23 @@
+package org.javacode.employee_accounting.security;
+
+import java.time.Instant;
+
+public record VerifiedToken(
+        String username,
+        String role,
+        Long securityVersion,
+        Instant issuedAt,
+        Instant expiresAt) {
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(Instant.now());
+    }
+
+    /**
+     * Токены, выпущенные до появления claims роли и версии, не самодостаточны
+     * и требуют загрузки пользователя из БД.
+     */
+    public boolean isSelfContained() {
+        return role != null && securityVersion != null;
+    }
+}
@@ -4,30 +4,46 @@ import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import org.javacode.employee_accounting.exception.InvalidJwtTokenException;
+import org.javacode.employee_accounting.model.entity.Employee;
 import org.javacode.employee_accounting.security.JwtUtil;
+import org.javacode.employee_accounting.security.SecurityVersionIndex;
+import org.javacode.employee_accounting.security.VerifiedToken;
 import org.javacode.employee_accounting.service.EmployeeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 @Component
-@AllArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
   
     private final JwtUtil jwtUtil;
     private final EmployeeService employeeService;
+    private final SecurityVersionIndex securityVersionIndex;
+    // false - пользователь загружается из БД на каждый запрос, как раньше
+    private final boolean statelessAuthentication;
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   EmployeeService employeeService,
+                                   SecurityVersionIndex securityVersionIndex,
+                                   @Value("${jwt.stateless-authentication:true}") boolean statelessAuthentication) {
+        this.jwtUtil = jwtUtil;
+        this.employeeService = employeeService;
+        this.securityVersionIndex = securityVersionIndex;
+        this.statelessAuthentication = statelessAuthentication;
+    }
+
     // Метод, выполняемый для каждого HTTP запроса  
     @SneakyThrows
     @Override
@@ -44,19 +60,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Шаг 3: Извлечение токена из заголовка
         String jwtToken = authHeader.substring(7);
 
-        // Шаг 4: Извлечение имени пользователя из JWT токена
-        String username = null;
+        // Шаг 4: Проверка подписи и извлечение имени пользователя из JWT токена (один разбор)
+        VerifiedToken verifiedToken;
         try {
-            username = jwtUtil.extractUsername(jwtToken);
+            verifiedToken = jwtUtil.verify(jwtToken);
         } catch (JwtException e) {
             throw new InvalidJwtTokenException(e.getMessage());
         }
+        String username = verifiedToken.username();
 
         // Шаг 5: Проверка валидности токена и аутентификации
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = employeeService.loadUserByUsername(username);
+            UserDetails userDetails = statelessAuthentication && verifiedToken.isSelfContained()
+                    ? userDetailsFromClaims(verifiedToken)
+                    : userDetailsFromDatabase(verifiedToken);
 
-            if (jwtUtil.isTokenValid(jwtToken, userDetails)) {
+            if (userDetails != null) {
                 // Шаг 6: Создание нового контекста безопасности
                 SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
                 UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
@@ -73,5 +92,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
 
     }
+
+    // Аутентификация без обращения к БД: роль берётся из токена, отзыв проверяется по индексу версий
+    private UserDetails userDetailsFromClaims(VerifiedToken verifiedToken) {
+        if (!securityVersionIndex.isCurrent(verifiedToken.username(), verifiedToken.securityVersion())) {
+            logger.info(String.format("%s token revoked", verifiedToken.username()));
+            return null;
+        }
+        return User.withUsername(verifiedToken.username())
+                .password("")
+                .authorities(verifiedToken.role())
+                .build();
+    }
+
+    private UserDetails userDetailsFromDatabase(VerifiedToken verifiedToken) {
+        UserDetails userDetails = employeeService.loadUserByUsername(verifiedToken.username());
+        if (!jwtUtil.isTokenValid(verifiedToken, userDetails)) {
+            return null;
+        }
+        if (userDetails instanceof Employee employee && verifiedToken.securityVersion() != null
+                && employee.getSecurityVersion() != verifiedToken.securityVersion()) {
+            logger.info(String.format("%s token revoked", verifiedToken.username()));
+            return null;
+        }
+        return userDetails;
+    }
   
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.javacode.employee_accounting.service;
 
 import org.javacode.employee_accounting.model.dto.EmployeeSignInDto;
 import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.AvailabilityDto;
 
 public interface AuthService {
 
@@ -10,4 +11,6 @@ public interface AuthService {
     String signIn(EmployeeSignInDto employee) throws Exception;
 
     String refreshToken(EmployeeSignInDto employee);
+
+    AvailabilityDto checkAvailability(String username, String email);
 }
@@ -0,0 +1,20 @@
+package org.javacode.employee_accounting.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface ChangeFeedService {
+
+    /**
+     * Подписка на ленту изменений.
+     *
+     * @param lastEventId номер последнего полученного события; null - только новые события
+     */
+    SseEmitter subscribe(Long lastEventId);
+
+    /**
+     * Присваивает номера зафиксированным событиям outbox и будит подписчиков.
+     *
+     * @return число опубликованных событий
+     */
+    int relay();
+}
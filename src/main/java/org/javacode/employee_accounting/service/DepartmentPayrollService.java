@@ -0,0 +1,16 @@
+package org.javacode.employee_accounting.service;
+
+import org.javacode.employee_accounting.model.dto.response.DepartmentPayrollDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface DepartmentPayrollService {
+
+    /**
+     * Аналитика фонда оплаты по отделам. Результат кэшируется на department.payroll.cache.ttl,
+     * поэтому изменения зарплат видны с задержкой не больше этого интервала.
+     */
+    Page<DepartmentPayrollDto> findPayroll(Pageable pageable);
+
+    void clearCache();
+}
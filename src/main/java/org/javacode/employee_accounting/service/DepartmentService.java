@@ -2,23 +2,61 @@ package org.javacode.employee_accounting.service;
 
 import org.javacode.employee_accounting.model.dto.create.DepartmentCreateEditDto;
 import org.javacode.employee_accounting.model.dto.response.DepartmentResponseDto;
+import org.javacode.employee_accounting.model.dto.response.KeysetPageResponseDto;
 import org.javacode.employee_accounting.model.entity.Department;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface DepartmentService {
 
     Optional<DepartmentResponseDto> findById(Integer id);
 
+    /**
+     * Сильный ETag отдела из версии строки и численности, без загрузки и маппинга записи.
+     */
+    Optional<String> findEntityTag(Integer id);
+
+    /**
+     * Слабый ETag списков отделов.
+     */
+    String collectionTag();
+
     Page<DepartmentResponseDto> findAll(Pageable pageable);
 
+    KeysetPageResponseDto<DepartmentResponseDto> findAllByKeyset(String cursor, Pageable pageable);
+
     DepartmentResponseDto create(DepartmentCreateEditDto departmentDto);
 
-    Optional<DepartmentResponseDto> update(Integer id, DepartmentCreateEditDto departmentDto);
+    /**
+     * @param ifMatch значение If-Match или null
+     * @throws org.javacode.employee_accounting.exception.PreconditionFailedException если ETag не совпал
+     */
+    Optional<DepartmentResponseDto> update(Integer id, DepartmentCreateEditDto departmentDto, String ifMatch);
 
     boolean delete(Integer id);
 
     Department findOrCreateDepartment(String name);
+
+    /**
+     * Создаёт недостающие отделы одной командой, для пакетной загрузки сотрудников.
+     *
+     * @return все запрошенные отделы по имени
+     */
+    Map<String, Department> findOrCreateDepartments(Collection<String> names);
+
+    /**
+     * Перечитывает кэш отделов из БД, например после изменений в обход сервиса.
+     */
+    void reloadCache();
+
+    /**
+     * Публикуется в транзакции изменения или удаления отдела: его название входит
+     * в представления сотрудников, закэшированные вне этого сервиса.
+     */
+    record DepartmentChangedEvent(Integer departmentId) {
+    }
 }
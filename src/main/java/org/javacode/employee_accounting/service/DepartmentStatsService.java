@@ -0,0 +1,30 @@
+package org.javacode.employee_accounting.service;
+
+import org.javacode.employee_accounting.model.dto.response.DepartmentStatsDto;
+import org.javacode.employee_accounting.model.entity.Department;
+import org.javacode.employee_accounting.model.entity.Employee;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Численность и фонд оплаты отделов. Методы employee* вызываются в транзакции,
+ * которая меняет сотрудников, и применяют к статистике только приращения.
+ */
+public interface DepartmentStatsService {
+
+    Optional<DepartmentStatsDto> findByDepartmentId(Integer departmentId);
+
+    void employeesAdded(Collection<Employee> employees);
+
+    void employeeRemoved(Employee employee);
+
+    void employeeChanged(Department previousDepartment, double previousSalary, Employee employee);
+
+    /**
+     * Находит и исправляет расхождения статистики с таблицей employees.
+     *
+     * @return число исправленных отделов
+     */
+    int reconcile();
+}
@@ -0,0 +1,11 @@
+package org.javacode.employee_accounting.service;
+
+import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.BulkItemResultDto;
+
+import java.util.List;
+
+public interface EmployeeBulkService {
+
+    List<BulkItemResultDto> createAll(List<EmployeeCreateEditDto> employees);
+}
@@ -0,0 +1,15 @@
+package org.javacode.employee_accounting.service;
+
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
+import org.javacode.employee_accounting.model.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface EmployeeExportService {
+
+    /**
+     * @return число выгруженных строк
+     */
+    long export(EmployeeFilterDto filter, ExportFormat format, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,16 @@
+package org.javacode.employee_accounting.service;
+
+import org.javacode.employee_accounting.model.dto.response.ImportResultDto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+public interface EmployeeImportService {
+
+    /**
+     * @param csv     CSV с заголовком firstname,lastname,email,password,username,position,role,salary,department
+     * @param rejects сюда пишутся отклонённые строки с номером записи и причиной
+     */
+    ImportResultDto importCsv(Reader csv, Writer rejects) throws IOException;
+}
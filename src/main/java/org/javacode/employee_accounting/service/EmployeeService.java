@@ -1,35 +1,90 @@
 package org.javacode.employee_accounting.service;
 
+import org.javacode.employee_accounting.model.dto.EmployeeBlockDto;
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
 import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.AutocompleteSuggestionDto;
+import org.javacode.employee_accounting.model.dto.response.AvailabilityDto;
 import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.javacode.employee_accounting.model.dto.response.KeysetPageResponseDto;
+import org.javacode.employee_accounting.model.entity.Employee;
 import org.javacode.employee_accounting.model.projections.EmployeeProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
-public interface EmployeeService extends UserDetailsService {
+public interface EmployeeService extends UserDetailsService, UserDetailsPasswordService {
 
     Optional<EmployeeResponseDto> findById(Long id);
 
+    /**
+     * Сильный ETag сотрудника из версий его строки и отдела, без загрузки и маппинга записи.
+     */
+    Optional<String> findEntityTag(Long id);
+
+    /**
+     * Слабый ETag списков сотрудников, меняется при любой записи в таблицу.
+     */
+    String collectionTag();
+
     Optional<EmployeeResponseDto> findByUsername(String username);
 
     List<EmployeeProjection> findAllEmployeeProjection();
 
-    Page<EmployeeResponseDto> findAllEmployeeProjection(Pageable pageable);
+    void streamAllEmployeeProjection(Consumer<EmployeeProjection> consumer);
+
+    Page<EmployeeResponseDto> findAllEmployeeProjection(EmployeeFilterDto filter, Pageable pageable);
+
+    KeysetPageResponseDto<EmployeeResponseDto> findAllByKeyset(String cursor, Pageable pageable);
+
+    Page<EmployeeResponseDto> search(String query, Pageable pageable);
+
+    List<AutocompleteSuggestionDto> autocomplete(String prefix, int limit);
+
+    /**
+     * Свободны ли username и email. Значение, которого точно нет в фильтре Блума,
+     * считается свободным без запроса в БД; null не проверяется.
+     */
+    AvailabilityDto checkAvailability(String username, String email);
 
     EmployeeResponseDto create(EmployeeCreateEditDto employeeDto);
 
-    Optional<EmployeeResponseDto> update(Long id, EmployeeCreateEditDto employeeDto);
+    /**
+     * @param ifMatch значение If-Match или null
+     * @throws org.javacode.employee_accounting.exception.PreconditionFailedException если ETag не совпал
+     */
+    Optional<EmployeeResponseDto> update(Long id, EmployeeCreateEditDto employeeDto, String ifMatch);
 
     boolean delete(Long id);
 
     UserDetails loadUserByUsername(String username);
 
+    UserDetails updatePassword(UserDetails user, String newPassword);
+
     boolean userIsLocked(Long id);
 
     void setBlock(Long id, Boolean block);
+
+    /**
+     * Блокирует или разблокирует сотрудников одним UPDATE на порцию и отзывает их токены.
+     *
+     * @return число сотрудников, у которых изменился статус
+     */
+    long setBlock(EmployeeBlockDto blockDto);
+
+    /**
+     * Блокирует учётную запись после превышения числа неудачных входов.
+     */
+    void lockAccount(Employee employee, int failedLoginAttempts);
+
+    /**
+     * Очищает кэши сотрудников, например после изменений в обход сервиса.
+     */
+    void clearCache();
 }
@@ -0,0 +1,21 @@
+package org.javacode.employee_accounting.service;
+
+import org.javacode.employee_accounting.model.dto.response.PayrollDepartmentTotalDto;
+import org.javacode.employee_accounting.model.dto.response.PayrollRunDto;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+public interface PayrollService {
+
+    /**
+     * Запускает расчёт в фоне и сразу возвращает запуск со статусом RUNNING.
+     * Запуски выполняются по одному, следующий ждёт завершения предыдущего.
+     */
+    PayrollRunDto start(YearMonth period);
+
+    Optional<PayrollRunDto> findRun(Long id);
+
+    List<PayrollDepartmentTotalDto> findDepartmentTotals(Long runId);
+}
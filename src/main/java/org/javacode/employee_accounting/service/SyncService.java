@@ -0,0 +1,35 @@
+package org.javacode.employee_accounting.service;
+
+import org.javacode.employee_accounting.model.dto.response.DepartmentSyncDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeSyncDto;
+import org.javacode.employee_accounting.model.dto.response.SyncPageDto;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+
+import java.time.Instant;
+
+/**
+ * Дельта-синхронизация локальных копий клиентов по водяному знаку updated_at
+ * и надгробиям удалённых записей.
+ */
+public interface SyncService {
+
+    /**
+     * @param since  watermark предыдущей синхронизации; null - полный снимок
+     * @param cursor nextCursor предыдущей страницы; since при этом не учитывается
+     */
+    SyncPageDto<EmployeeSyncDto> employeeChanges(Instant since, String cursor, int size);
+
+    SyncPageDto<DepartmentSyncDto> departmentChanges(Instant since, String cursor, int size);
+
+    /**
+     * Оставляет надгробие удалённой записи. Вызывается в транзакции удаления.
+     */
+    void recordDeletion(ChangeEntity entity, long entityId);
+
+    /**
+     * Удаляет надгробия старше tombstone-ttl порциями, каждая в своей транзакции.
+     *
+     * @return число удалённых надгробий
+     */
+    int purgeTombstones();
+}
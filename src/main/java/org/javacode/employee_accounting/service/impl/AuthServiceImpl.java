@@ -4,17 +4,18 @@ import lombok.RequiredArgsConstructor;
 import org.javacode.employee_accounting.exception.BlockedAccountException;
 import org.javacode.employee_accounting.model.dto.EmployeeSignInDto;
 import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.AvailabilityDto;
 import org.javacode.employee_accounting.model.entity.Employee;
 import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.security.FailedLoginCounter;
 import org.javacode.employee_accounting.security.JwtUtil;
 import org.javacode.employee_accounting.service.AuthService;
 import org.javacode.employee_accounting.service.EmployeeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -25,7 +26,8 @@ public class AuthServiceImpl implements AuthService {
     private final EmployeeService employeeService;
     private final EmployeeRepository employeeRepository;
     private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordEncoder passwordEncoder;
+    private final FailedLoginCounter failedLoginCounter;
     private static final int MAX_FAILED_ATTEMPTS = 5;
     private static final Logger logger = LoggerFactory.getLogger(AuthServiceImpl.class);
 
@@ -37,37 +39,43 @@ public class AuthServiceImpl implements AuthService {
 
     public String signIn(EmployeeSignInDto employeeDto) throws Exception {
 
-        UserDetails userDetails = employeeService.loadUserByUsername(employeeDto.username());
+        Employee employee = employeeRepository.findByUsername(employeeDto.username())
+                .orElseThrow(() -> new UsernameNotFoundException(employeeDto.username()));
 
-        if (!userDetails.isAccountNonLocked()) {
+        if (!employee.isAccountNonLocked()) {
             throw new Exception("User account is locked");
         }
 
-        Employee employee = employeeRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow();
-        try {
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails.getUsername(),
-                    userDetails.getPassword());
-
-            authenticationManager.authenticate(authentication);
+        if (passwordEncoder.matches(employeeDto.password(), employee.getPassword())) {
+            // Одна команда UPDATE и только если в БД или в памяти есть неудачные попытки
+            if (failedLoginCounter.current(employee.getUsername(), employee.getFailedLoginAttempts()) > 0) {
+                employeeRepository.resetFailedLoginAttempts(employee.getUsername());
+            }
+            failedLoginCounter.clear(employee.getUsername());
 
-            employee.setFailedLoginAttempts(0);
-            employeeRepository.flush();
+            if (passwordEncoder.upgradeEncoding(employee.getPassword())) {
+                employeeService.updatePassword(employee, passwordEncoder.encode(employeeDto.password()));
+            }
 
-            return jwtUtil.generateRefreshJwtToken(new HashMap<>(), userDetails);
-        } catch (AuthenticationException e) {
-            employee.setFailedLoginAttempts(employee.getFailedLoginAttempts() + 1);
+            return jwtUtil.generateRefreshJwtToken(new HashMap<>(), employee);
+        }
 
-            if (employee.getFailedLoginAttempts() >= MAX_FAILED_ATTEMPTS) {
-                employee.setAccountNonLocked(false);
-                logger.warn(String.format("%s account is locked", employee.getUsername()));
-                throw new BlockedAccountException("User account is locked due to too many failed login attempts");
-            }
-            employeeRepository.flush();
+        int attempts = failedLoginCounter.increment(employee.getUsername(), employee.getFailedLoginAttempts());
 
-            throw new Exception("Invalid username or password", e);
+        if (attempts >= MAX_FAILED_ATTEMPTS) {
+            // Блокировка записывается сразу, чтобы пережить перезапуск
+            employeeService.lockAccount(employee, attempts);
+            failedLoginCounter.clear(employee.getUsername());
+            logger.warn(String.format("%s account is locked", employee.getUsername()));
+            throw new BlockedAccountException("User account is locked due to too many failed login attempts");
         }
+
+        throw new Exception("Invalid username or password");
+    }
+
+    @Override
+    public AvailabilityDto checkAvailability(String username, String email) {
+        return employeeService.checkAvailability(username, email);
     }
 
     @Override
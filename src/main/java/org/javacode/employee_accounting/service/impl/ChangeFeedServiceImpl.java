@@ -0,0 +1,232 @@
+package org.javacode.employee_accounting.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.javacode.employee_accounting.changes.ChangeOutbox;
+import org.javacode.employee_accounting.exception.SubscriberLimitExceededException;
+import org.javacode.employee_accounting.exception.SyncWatermarkExpiredException;
+import org.javacode.employee_accounting.model.dto.response.ChangeEventDto;
+import org.javacode.employee_accounting.repository.ChangeEventRepository;
+import org.javacode.employee_accounting.service.ChangeFeedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Лента изменений поверх outbox. Подписчики не держат очередей в памяти: у каждого есть только
+ * номер последнего отправленного события, и по сигналу он дочитывает из БД порции после него.
+ * Медленный клиент просто отстаёт и не влияет ни на запись, ни на других подписчиков.
+ */
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private static final String EVENT_NAME = "changes";
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedServiceImpl.class);
+
+    private final ChangeEventRepository changeEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxSubscribers;
+    private final Duration emitterTimeout;
+    private final Duration retention;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    // Место занимается до создания подписки, поэтому одновременные подключения не превышают лимит
+    private final AtomicInteger reservedSlots = new AtomicInteger();
+    private final ExecutorService relayExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("change-relay-"));
+    private final ExecutorService deliveryExecutor;
+    // Сигналы, пришедшие до запуска relay, схлопываются в один запуск
+    private final AtomicBoolean relayPending = new AtomicBoolean();
+    private final AtomicLong lastSequence = new AtomicLong(-1);
+    private final Counter publishedEvents;
+    private final Counter deliveredEvents;
+
+    public ChangeFeedServiceImpl(ChangeEventRepository changeEventRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${changes.batch-size:500}") int batchSize,
+                                 @Value("${changes.delivery-threads:4}") int deliveryThreads,
+                                 @Value("${changes.max-subscribers:100}") int maxSubscribers,
+                                 @Value("${changes.emitter-timeout:30m}") Duration emitterTimeout,
+                                 @Value("${changes.retention:7d}") Duration retention,
+                                 MeterRegistry meterRegistry) {
+        this.changeEventRepository = changeEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeout = emitterTimeout;
+        this.retention = retention;
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads, new CustomizableThreadFactory("change-delivery-"));
+        this.publishedEvents = meterRegistry.counter("changes.published");
+        this.deliveredEvents = meterRegistry.counter("changes.delivered");
+        Gauge.builder("changes.subscribers", subscriptions, Set::size).register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long lastEventId) {
+        if (lastEventId != null && lastEventId < changeEventRepository.findPurgedSequence()) {
+            throw new SyncWatermarkExpiredException("Last-Event-ID " + lastEventId + " is older than retained "
+                    + "change events, full resync required");
+        }
+        if (reservedSlots.incrementAndGet() > maxSubscribers) {
+            reservedSlots.decrementAndGet();
+            throw new SubscriberLimitExceededException("Too many change feed subscribers");
+        }
+        Subscription subscription;
+        try {
+            long cursor = lastEventId != null ? lastEventId : changeEventRepository.findLastSequence();
+            subscription = new Subscription(new SseEmitter(emitterTimeout.toMillis()), cursor);
+        } catch (RuntimeException e) {
+            reservedSlots.decrementAndGet();
+            throw e;
+        }
+        SseEmitter emitter = subscription.emitter;
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscription));
+        subscriptions.add(subscription);
+        // Догоняет пропущенное с Last-Event-ID; до инициализации ответа отправки буферизуются
+        subscription.signal();
+        return emitter;
+    }
+
+    @Override
+    public int relay() {
+        int published = 0;
+        int sequenced;
+        do {
+            sequenced = transactionTemplate.execute(status -> changeEventRepository.assignSequences(batchSize));
+            published += sequenced;
+        } while (sequenced == batchSize);
+        publishedEvents.increment(published);
+
+        // События могли опубликовать и другие узлы: подписчики будятся при любом сдвиге номера
+        long last = changeEventRepository.findLastSequence();
+        if (lastSequence.getAndSet(last) != last) {
+            subscriptions.forEach(Subscription::signal);
+        }
+        return published;
+    }
+
+    @EventListener(ChangeOutbox.ChangesCommittedEvent.class)
+    public void onChangesCommitted() {
+        scheduleRelay();
+    }
+
+    // Страховка на случай потерянного сигнала и для событий, записанных другими узлами
+    @Scheduled(fixedDelayString = "${changes.relay.poll-interval-ms:1000}")
+    public void poll() {
+        scheduleRelay();
+    }
+
+    @Scheduled(fixedDelayString = "${changes.purge-interval-ms:3600000}",
+            initialDelayString = "${changes.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = transactionTemplate.execute(
+                status -> changeEventRepository.deletePublishedBefore(Instant.now().minus(retention)));
+        if (deleted > 0) {
+            logger.info(String.format("Purged %d change events older than %s", deleted, retention));
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            reservedSlots.decrementAndGet();
+        }
+    }
+
+    private void scheduleRelay() {
+        if (relayPending.compareAndSet(false, true)) {
+            relayExecutor.execute(() -> {
+                relayPending.set(false);
+                try {
+                    relay();
+                } catch (RuntimeException e) {
+                    logger.error("Change relay failed", e);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdownNow();
+        deliveryExecutor.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        // Изменяется только задачей доставки, которая у подписчика всегда одна
+        private volatile long cursor;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        private Subscription(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private void signal() {
+            dirty.set(true);
+            if (running.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (dirty.getAndSet(false)) {
+                    List<ChangeEventDto> batch;
+                    do {
+                        batch = changeEventRepository.findPublishedAfter(cursor, batchSize);
+                        if (!batch.isEmpty()) {
+                            send(batch);
+                        }
+                    } while (batch.size() == batchSize);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Клиент отключился; при переподключении он продолжит с Last-Event-ID
+                unsubscribe(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                running.set(false);
+            }
+            // Сигнал мог прийти между последней проверкой и сбросом running
+            if (dirty.get()) {
+                signal();
+            }
+        }
+
+        private void send(List<ChangeEventDto> batch) throws IOException {
+            long last = batch.get(batch.size() - 1).sequence();
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(last))
+                    .name(EVENT_NAME)
+                    .data(batch, MediaType.APPLICATION_JSON));
+            cursor = last;
+            deliveredEvents.increment(batch.size());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.javacode.employee_accounting.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.javacode.employee_accounting.model.dto.response.DepartmentPayrollDto;
+import org.javacode.employee_accounting.repository.DepartmentRepository;
+import org.javacode.employee_accounting.service.DepartmentPayrollService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+public class DepartmentPayrollServiceImpl implements DepartmentPayrollService {
+
+    private final DepartmentRepository departmentRepository;
+    // Ключ - номер и размер страницы: отделы всегда упорядочены по имени
+    private final Cache<PageRequest, Page<DepartmentPayrollDto>> payrollPages;
+
+    public DepartmentPayrollServiceImpl(DepartmentRepository departmentRepository,
+                                        @Value("${department.payroll.cache.max-size:1000}") long cacheMaxSize,
+                                        @Value("${department.payroll.cache.ttl:5m}") Duration cacheTtl,
+                                        MeterRegistry meterRegistry) {
+        this.departmentRepository = departmentRepository;
+        this.payrollPages = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, payrollPages, "departments.payroll");
+    }
+
+    @Override
+    public Page<DepartmentPayrollDto> findPayroll(Pageable pageable) {
+        return payrollPages.get(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()),
+                departmentRepository::findPayroll);
+    }
+
+    @Override
+    public void clearCache() {
+        payrollPages.invalidateAll();
+    }
+}
@@ -1,74 +1,285 @@
 package org.javacode.employee_accounting.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.javacode.employee_accounting.changes.ChangeOutbox;
+import org.javacode.employee_accounting.etag.ChangeCounters;
+import org.javacode.employee_accounting.etag.EntityTags;
+import org.javacode.employee_accounting.exception.PreconditionFailedException;
 import org.javacode.employee_accounting.mapper.create.DepartmentCreateEditMapper;
 import org.javacode.employee_accounting.mapper.response.DepartmentResponseMapper;
 import org.javacode.employee_accounting.model.dto.create.DepartmentCreateEditDto;
 import org.javacode.employee_accounting.model.dto.response.DepartmentResponseDto;
+import org.javacode.employee_accounting.model.dto.response.KeysetPageResponseDto;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.ChangeOperation;
 import org.javacode.employee_accounting.model.entity.Department;
+import org.javacode.employee_accounting.model.entity.DepartmentStats;
+import org.javacode.employee_accounting.pagination.KeysetCursor;
+import org.javacode.employee_accounting.pagination.KeysetCursorCodec;
+import org.javacode.employee_accounting.repository.DepartmentBatchRepository.UpsertResult;
 import org.javacode.employee_accounting.repository.DepartmentRepository;
+import org.javacode.employee_accounting.repository.DepartmentStatsRepository;
 import org.javacode.employee_accounting.service.DepartmentService;
+import org.javacode.employee_accounting.service.SyncService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Objects;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class DepartmentServiceImpl implements DepartmentService {
 
+    private static final Map<String, Class<?>> KEYSET_SORTABLE = Map.of(
+            "id", Integer.class,
+            "name", String.class);
+
     private final DepartmentRepository departmentRepository;
+    private final DepartmentStatsRepository departmentStatsRepository;
     private final DepartmentResponseMapper departmentResponseMapper;
     private final DepartmentCreateEditMapper departmentCreateEditMapper;
+    private final KeysetCursorCodec keysetCursorCodec;
+    private final ChangeCounters changeCounters;
+    private final ChangeOutbox changeOutbox;
+    private final SyncService syncService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    // Кэш имя -> отдел. Загрузка по промаху выполняется одним потоком на ключ,
+    // поэтому одновременные запросы нового отдела дают один запрос в БД
+    private final Cache<String, Department> departmentsByName;
+
+    public DepartmentServiceImpl(DepartmentRepository departmentRepository,
+                                 DepartmentStatsRepository departmentStatsRepository,
+                                 DepartmentResponseMapper departmentResponseMapper,
+                                 DepartmentCreateEditMapper departmentCreateEditMapper,
+                                 KeysetCursorCodec keysetCursorCodec,
+                                 ChangeCounters changeCounters,
+                                 ChangeOutbox changeOutbox,
+                                 SyncService syncService,
+                                 ApplicationEventPublisher applicationEventPublisher,
+                                 @Value("${department.cache.max-size:10000}") long cacheMaxSize,
+                                 MeterRegistry meterRegistry) {
+        this.departmentRepository = departmentRepository;
+        this.departmentStatsRepository = departmentStatsRepository;
+        this.departmentResponseMapper = departmentResponseMapper;
+        this.departmentCreateEditMapper = departmentCreateEditMapper;
+        this.keysetCursorCodec = keysetCursorCodec;
+        this.changeCounters = changeCounters;
+        this.changeOutbox = changeOutbox;
+        this.syncService = syncService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.departmentsByName = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, departmentsByName, "departments.by-name");
+    }
 
     @Override
     public Optional<DepartmentResponseDto> findById(Integer id) {
         return departmentRepository.findById(id)
-                .map(departmentResponseMapper::map);
+                .map(this::mapWithHeadcount);
+    }
+
+    @Override
+    public Optional<String> findEntityTag(Integer id) {
+        return departmentRepository.findVersionById(id)
+                .map(version -> EntityTags.strong(version.getVersion(), version.getHeadcount()));
+    }
+
+    @Override
+    public String collectionTag() {
+        return changeCounters.collectionTag(ChangeCounters.DEPARTMENTS);
     }
 
     @Override
     public Page<DepartmentResponseDto> findAll(Pageable pageable) {
-        Page<Department> page = departmentRepository.findAll(pageable);
-        return new PageImpl<>(page.getContent().stream()
-                .map(departmentResponseMapper::map)
-                .toList(), pageable, page.getTotalElements());
+        return departmentRepository.findAllResponses(pageable);
+    }
+
+    @Override
+    public KeysetPageResponseDto<DepartmentResponseDto> findAllByKeyset(String cursor, Pageable pageable) {
+        KeysetCursor keysetCursor = keysetCursorCodec.decode(cursor, pageable.getSort(), KEYSET_SORTABLE);
+        Window<Department> window = departmentRepository.findAllBy(
+                keysetCursor.position(), keysetCursor.sort(), Limit.of(pageable.getPageSize()));
+        Map<Integer, Long> headcounts = departmentStatsRepository.findAllById(window.getContent().stream()
+                        .map(Department::getId)
+                        .toList()).stream()
+                .collect(Collectors.toMap(DepartmentStats::getDepartmentId, DepartmentStats::getHeadcount));
+        return new KeysetPageResponseDto<>(window.getContent().stream()
+                .map(department -> departmentResponseMapper.map(department, headcounts.getOrDefault(department.getId(), 0L)))
+                .toList(), keysetCursorCodec.encodeNext(window, keysetCursor.sort()), window.hasNext());
     }
 
     @Override
+    @Transactional
     public DepartmentResponseDto create(DepartmentCreateEditDto departmentDto) {
         return Optional.of(departmentDto)
                 .map(departmentCreateEditMapper::map)
                 .map(departmentRepository::save)
-                .map(departmentResponseMapper::map)
+                .map(department -> {
+                    departmentsByName.put(department.getName(), copyOf(department));
+                    evictOnRollback(department.getName());
+                    changeCounters.changed(ChangeCounters.DEPARTMENTS);
+                    return department;
+                })
+                .map(department -> {
+                    DepartmentResponseDto response = departmentResponseMapper.map(department, 0);
+                    changeOutbox.record(ChangeEntity.DEPARTMENT, department.getId(), ChangeOperation.CREATED, response);
+                    return response;
+                })
                 .orElseThrow();
     }
 
     @Override
-    public Optional<DepartmentResponseDto> update(Integer id, DepartmentCreateEditDto departmentDto) {
-        return departmentRepository.findById(id)
-                .map(department -> departmentCreateEditMapper.map(departmentDto, department))
-                .map(departmentRepository::saveAndFlush)
-                .map(departmentResponseMapper::map);
+    @Transactional
+    public Optional<DepartmentResponseDto> update(Integer id, DepartmentCreateEditDto departmentDto, String ifMatch) {
+        try {
+            return departmentRepository.findById(id)
+                    .map(department -> {
+                        if (ifMatch != null && !EntityTags.matches(ifMatch, findEntityTag(id).orElseThrow())) {
+                            throw new PreconditionFailedException("Department with id " + id + " has been modified");
+                        }
+                        String previousName = department.getName();
+                        Department updated = departmentRepository.saveAndFlush(
+                                departmentCreateEditMapper.map(departmentDto, department));
+                        invalidateNames(previousName, updated.getName());
+                        // Название отдела входит и в представление сотрудников
+                        changeCounters.changed(ChangeCounters.DEPARTMENTS);
+                        changeCounters.changed(ChangeCounters.EMPLOYEES);
+                        applicationEventPublisher.publishEvent(new DepartmentChangedEvent(id));
+                        return updated;
+                    })
+                    .map(department -> {
+                        DepartmentResponseDto response = mapWithHeadcount(department);
+                        changeOutbox.record(ChangeEntity.DEPARTMENT, id, ChangeOperation.UPDATED, response);
+                        return response;
+                    });
+        } catch (OptimisticLockingFailureException e) {
+            if (ifMatch != null) {
+                throw new PreconditionFailedException("Department with id " + id + " has been modified");
+            }
+            throw e;
+        }
     }
 
     @Override
+    @Transactional
     public boolean delete(Integer id) {
         return departmentRepository.findById(id)
                 .map(entity -> {
                     departmentRepository.deleteById(id);
                     departmentRepository.flush();
+                    departmentsByName.invalidate(entity.getName());
+                    changeCounters.changed(ChangeCounters.DEPARTMENTS);
+                    changeCounters.changed(ChangeCounters.EMPLOYEES);
+                    changeOutbox.record(ChangeEntity.DEPARTMENT, id, ChangeOperation.DELETED, null);
+                    syncService.recordDeletion(ChangeEntity.DEPARTMENT, id);
+                    applicationEventPublisher.publishEvent(new DepartmentChangedEvent(id));
                     return true;
                 })
                 .orElse(false);
     }
 
     @Override
+    @Transactional
     public Department findOrCreateDepartment(String name) {
-        return Objects.requireNonNullElseGet(departmentRepository.findByName(name),
-                () -> departmentRepository.save(Department.builder().name(name).build()));
+        Department department = departmentsByName.get(name, key -> {
+            UpsertResult result = departmentRepository.upsertByName(key);
+            recordCreated(result);
+            evictOnRollback(key);
+            return result.departments().get(key);
+        });
+        // Отдел изменяемый, наружу отдаём копию, чтобы не испортить запись кэша
+        return copyOf(department);
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Department> findOrCreateDepartments(Collection<String> names) {
+        UpsertResult result = departmentRepository.upsertAllByName(names);
+        recordCreated(result);
+        return result.departments();
+    }
+
+    // Отделы, созданные попутно с записью сотрудников, попадают в ленту изменений так же, как созданные через create
+    private void recordCreated(UpsertResult result) {
+        if (result.created().isEmpty()) {
+            return;
+        }
+        changeCounters.changed(ChangeCounters.DEPARTMENTS);
+        changeOutbox.recordAll(result.created().stream()
+                .map(name -> result.departments().get(name))
+                .map(department -> new ChangeOutbox.Change(ChangeEntity.DEPARTMENT, department.getId(),
+                        ChangeOperation.CREATED, departmentResponseMapper.map(department, 0)))
+                .toList());
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadCache() {
+        departmentsByName.invalidateAll();
+        departmentRepository.findAll()
+                .forEach(department -> departmentsByName.put(department.getName(), department));
+    }
+
+    // Кэш заполняется заново из БД: запись до коммита осталась бы в нём и после отката,
+    // а сброс после завершения не даёт параллельному чтению закэшировать старое название
+    private void invalidateNames(String... names) {
+        List<String> keys = List.of(names);
+        departmentsByName.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    departmentsByName.invalidateAll(keys);
+                }
+            });
+        }
+    }
+
+    // Отдел, созданный в откатившейся транзакции, не должен остаться в кэше
+    private void evictOnRollback(String name) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        departmentsByName.invalidate(name);
+                    }
+                }
+            });
+        }
+    }
+
+    private DepartmentResponseDto mapWithHeadcount(Department department) {
+        return departmentResponseMapper.map(department, departmentStatsRepository.findById(department.getId())
+                .map(DepartmentStats::getHeadcount)
+                .orElse(0L));
+    }
+
+    private static Department copyOf(Department department) {
+        return Department.builder()
+                .id(department.getId())
+                .name(department.getName())
+                .version(department.getVersion())
+                .updatedAt(department.getUpdatedAt())
+                .build();
     }
 }
@@ -0,0 +1,93 @@
+package org.javacode.employee_accounting.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.etag.ChangeCounters;
+import org.javacode.employee_accounting.model.dto.response.DepartmentStatsDto;
+import org.javacode.employee_accounting.model.entity.Department;
+import org.javacode.employee_accounting.model.entity.Employee;
+import org.javacode.employee_accounting.repository.DepartmentStatsDeltaRepository.Delta;
+import org.javacode.employee_accounting.repository.DepartmentStatsRepository;
+import org.javacode.employee_accounting.service.DepartmentStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class DepartmentStatsServiceImpl implements DepartmentStatsService {
+
+    // Сумма приращений double накапливает ошибку округления, расхождение меньше копейки не считается дрейфом
+    private static final double SALARY_TOLERANCE = 0.005;
+    private static final Logger logger = LoggerFactory.getLogger(DepartmentStatsServiceImpl.class);
+
+    private final DepartmentStatsRepository departmentStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeCounters changeCounters;
+
+    @Override
+    public Optional<DepartmentStatsDto> findByDepartmentId(Integer departmentId) {
+        return departmentStatsRepository.findStatsByDepartmentId(departmentId);
+    }
+
+    @Override
+    public void employeesAdded(Collection<Employee> employees) {
+        Map<Integer, Delta> deltas = new HashMap<>();
+        employees.forEach(employee -> addDelta(deltas, employee.getDepartment(), 1, employee.getSalary()));
+        applyDeltas(deltas);
+    }
+
+    @Override
+    public void employeeRemoved(Employee employee) {
+        Map<Integer, Delta> deltas = new HashMap<>();
+        addDelta(deltas, employee.getDepartment(), -1, -employee.getSalary());
+        applyDeltas(deltas);
+    }
+
+    @Override
+    public void employeeChanged(Department previousDepartment, double previousSalary, Employee employee) {
+        Map<Integer, Delta> deltas = new HashMap<>();
+        addDelta(deltas, previousDepartment, -1, -previousSalary);
+        addDelta(deltas, employee.getDepartment(), 1, employee.getSalary());
+        applyDeltas(deltas);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${department.stats.reconcile-interval-ms:600000}",
+            initialDelayString = "${department.stats.reconcile-interval-ms:600000}")
+    public int reconcile() {
+        transactionTemplate.executeWithoutResult(status -> departmentStatsRepository.synchronizeDepartments());
+        List<Integer> drifted = departmentStatsRepository.findDrifted(SALARY_TOLERANCE);
+        // Каждый отдел в своей транзакции, чтобы не держать блокировки всех строк сразу
+        drifted.forEach(departmentId -> transactionTemplate.executeWithoutResult(
+                status -> {
+                    departmentStatsRepository.recount(departmentId);
+                    changeCounters.changed(ChangeCounters.DEPARTMENTS);
+                }));
+        if (!drifted.isEmpty()) {
+            logger.warn(String.format("Department stats drift repaired for %d departments: %s", drifted.size(), drifted));
+        }
+        return drifted.size();
+    }
+
+    // Численность входит в представление отдела: её изменение меняет ETag списков отделов
+    private void applyDeltas(Map<Integer, Delta> deltas) {
+        departmentStatsRepository.applyDeltas(deltas);
+        if (deltas.values().stream().anyMatch(delta -> delta.headcount() != 0)) {
+            changeCounters.changed(ChangeCounters.DEPARTMENTS);
+        }
+    }
+
+    private static void addDelta(Map<Integer, Delta> deltas, Department department, long headcount, double salary) {
+        if (department != null) {
+            deltas.merge(department.getId(), new Delta(headcount, salary), Delta::plus);
+        }
+    }
+}
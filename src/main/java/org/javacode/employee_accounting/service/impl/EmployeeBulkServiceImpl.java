@@ -0,0 +1,191 @@
+package org.javacode.employee_accounting.service.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.javacode.employee_accounting.autocomplete.EmployeeAutocompleteIndex;
+import org.javacode.employee_accounting.availability.EmployeeAvailabilityIndex;
+import org.javacode.employee_accounting.changes.ChangeOutbox;
+import org.javacode.employee_accounting.etag.ChangeCounters;
+import org.javacode.employee_accounting.exception.BulkLimitExceededException;
+import org.javacode.employee_accounting.mapper.create.EmployeeCreateEditMapper;
+import org.javacode.employee_accounting.mapper.response.EmployeeResponseMapper;
+import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.BulkItemResultDto;
+import org.javacode.employee_accounting.model.dto.response.DepartmentResponseDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.ChangeOperation;
+import org.javacode.employee_accounting.model.entity.Department;
+import org.javacode.employee_accounting.model.entity.Employee;
+import org.javacode.employee_accounting.model.projections.EmployeeAccountProjection;
+import org.javacode.employee_accounting.model.projections.EmployeeIdentity;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.security.AdaptiveBCryptPasswordEncoder;
+import org.javacode.employee_accounting.service.DepartmentService;
+import org.javacode.employee_accounting.service.DepartmentStatsService;
+import org.javacode.employee_accounting.service.EmployeeBulkService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class EmployeeBulkServiceImpl implements EmployeeBulkService {
+
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentService departmentService;
+    private final DepartmentStatsService departmentStatsService;
+    private final EmployeeCreateEditMapper employeeCreateEditMapper;
+    private final AdaptiveBCryptPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final EmployeeAutocompleteIndex employeeAutocompleteIndex;
+    private final EmployeeAvailabilityIndex employeeAvailabilityIndex;
+    private final ChangeCounters changeCounters;
+    private final ChangeOutbox changeOutbox;
+    private final EmployeeResponseMapper employeeResponseMapper;
+
+    @Value("${employee.bulk.max-items:5000}")
+    private int maxItems;
+
+    @Value("${employee.bulk.lookup-chunk-size:1000}")
+    private int lookupChunkSize;
+
+    /**
+     * Ошибочные элементы отклоняются по отдельности: 400 - не прошёл валидацию,
+     * 409 - username или email уже заняты (в БД или в этом же пакете).
+     */
+    @Override
+    @Transactional
+    public List<BulkItemResultDto> createAll(List<EmployeeCreateEditDto> employees) {
+        if (employees.size() > maxItems) {
+            throw new BulkLimitExceededException("Bulk request is limited to " + maxItems + " employees");
+        }
+        BulkItemResultDto[] results = new BulkItemResultDto[employees.size()];
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            String violations = validate(employees.get(i));
+            if (violations != null) {
+                results[i] = BulkItemResultDto.rejected(i, 400, violations);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        accepted = rejectDuplicates(employees, accepted, results);
+        if (accepted.isEmpty()) {
+            return List.of(results);
+        }
+
+        // Каждый отдел разрешается один раз, сколько бы сотрудников в нём ни было
+        Map<String, Department> departments = new HashMap<>();
+        for (int i : accepted) {
+            departments.computeIfAbsent(employees.get(i).department().name(), departmentService::findOrCreateDepartment);
+        }
+
+        List<String> encodedPasswords = passwordEncoder.encodeAll(accepted.stream()
+                .map(i -> employees.get(i).password())
+                .toList());
+
+        List<Employee> toInsert = new ArrayList<>(accepted.size());
+        for (int n = 0; n < accepted.size(); n++) {
+            EmployeeCreateEditDto dto = employees.get(accepted.get(n));
+            Employee employee = employeeCreateEditMapper.map(dto, encodedPasswords.get(n));
+            employee.setDepartment(departments.get(dto.department().name()));
+            toInsert.add(employee);
+        }
+        employeeRepository.insertAll(toInsert);
+        changeCounters.changed(ChangeCounters.EMPLOYEES);
+        recordCreated(toInsert);
+        departmentStatsService.employeesAdded(toInsert);
+        toInsert.forEach(employee -> employeeAvailabilityIndex.add(employee.getUsername(), employee.getEmail()));
+        toInsert.forEach(employee -> employeeAutocompleteIndex.add(
+                employee.getFirstName(), employee.getLastName(), employee.getPosition()));
+
+        for (int n = 0; n < accepted.size(); n++) {
+            int i = accepted.get(n);
+            EmployeeCreateEditDto dto = employees.get(i);
+            results[i] = BulkItemResultDto.created(i, new EmployeeResponseDto(
+                    dto.firstname(),
+                    dto.lastname(),
+                    dto.username(),
+                    dto.position(),
+                    dto.salary(),
+                    new DepartmentResponseDto(dto.department().name())));
+        }
+        return List.of(results);
+    }
+
+    private String validate(EmployeeCreateEditDto employee) {
+        if (employee == null) {
+            return "Employee must not be null";
+        }
+        // Колонки NOT NULL, которые аннотации DTO не проверяют: иначе упадёт весь пакет JDBC
+        if (employee.firstname() == null || employee.lastname() == null
+                || employee.email() == null || employee.password() == null) {
+            return "firstname, lastname, email and password are required";
+        }
+        Set<ConstraintViolation<EmployeeCreateEditDto>> violations = validator.validate(employee);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void recordCreated(List<Employee> inserted) {
+        List<ChangeOutbox.Change> changes = new ArrayList<>(inserted.size());
+        for (int from = 0; from < inserted.size(); from += lookupChunkSize) {
+            List<Employee> chunk = inserted.subList(from, Math.min(inserted.size(), from + lookupChunkSize));
+            Map<String, Long> ids = employeeRepository.findAccountsByUsernameIn(chunk.stream()
+                            .map(Employee::getUsername)
+                            .toList()).stream()
+                    .collect(Collectors.toMap(EmployeeAccountProjection::getUsername, EmployeeAccountProjection::getId));
+            chunk.forEach(employee -> changes.add(new ChangeOutbox.Change(ChangeEntity.EMPLOYEE,
+                    ids.get(employee.getUsername()), ChangeOperation.CREATED, employeeResponseMapper.map(employee))));
+        }
+        changeOutbox.recordAll(changes);
+    }
+
+    private List<Integer> rejectDuplicates(List<EmployeeCreateEditDto> employees, List<Integer> candidates,
+                                           BulkItemResultDto[] results) {
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        // Одним запросом на порцию, а не двумя exists на каждого сотрудника
+        for (int from = 0; from < candidates.size(); from += lookupChunkSize) {
+            List<Integer> chunk = candidates.subList(from, Math.min(candidates.size(), from + lookupChunkSize));
+            List<EmployeeIdentity> existing = employeeRepository.findIdentities(
+                    chunk.stream().map(i -> employees.get(i).username()).toList(),
+                    chunk.stream().map(i -> employees.get(i).email()).toList());
+            existing.forEach(identity -> {
+                takenUsernames.add(identity.getUsername());
+                takenEmails.add(identity.getEmail());
+            });
+        }
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i : candidates) {
+            EmployeeCreateEditDto employee = employees.get(i);
+            if (!takenUsernames.add(employee.username())) {
+                results[i] = BulkItemResultDto.rejected(i, 409, "User with username " + employee.username() + " already exists");
+            } else if (!takenEmails.add(employee.email())) {
+                takenUsernames.remove(employee.username());
+                results[i] = BulkItemResultDto.rejected(i, 409, "User with email " + employee.email() + " already exists");
+            } else {
+                accepted.add(i);
+            }
+        }
+        return accepted;
+    }
+}
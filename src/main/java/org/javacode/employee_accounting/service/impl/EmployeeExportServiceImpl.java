@@ -0,0 +1,130 @@
+package org.javacode.employee_accounting.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.dhatim.fastexcel.Workbook;
+import org.dhatim.fastexcel.Worksheet;
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
+import org.javacode.employee_accounting.model.dto.ExportFormat;
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.service.EmployeeExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class EmployeeExportServiceImpl implements EmployeeExportService {
+
+    private static final List<String> COLUMNS = List.of(
+            "firstname", "lastname", "username", "position", "salary", "department");
+    private static final int FLUSH_ROWS = 1000;
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeExportServiceImpl.class);
+
+    private final EmployeeRepository employeeRepository;
+
+    /**
+     * Строки пишутся по мере чтения курсора и сбрасываются в ответ каждые FLUSH_ROWS,
+     * поэтому память не зависит от числа сотрудников.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long export(EmployeeFilterDto filter, ExportFormat format, OutputStream outputStream) throws IOException {
+        long started = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(outputStream);
+        long rows;
+        try (Stream<EmployeeResponseDto> employees = employeeRepository.streamResponses(filter)) {
+            rows = switch (format) {
+                case CSV -> writeCsv(employees.iterator(), counting);
+                case XLSX -> writeXlsx(employees.iterator(), counting);
+            };
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        logger.info(String.format("Employee export %s: %d rows, %d bytes in %d ms (%d rows/sec)",
+                format, rows, counting.getCount(), elapsedMillis, rows * 1000 / elapsedMillis));
+        return rows;
+    }
+
+    private static long writeCsv(Iterator<EmployeeResponseDto> employees, OutputStream outputStream) throws IOException {
+        long rows = 0;
+        CSVPrinter printer = new CSVPrinter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                CSVFormat.DEFAULT.builder().setHeader(COLUMNS.toArray(String[]::new)).build());
+        while (employees.hasNext()) {
+            EmployeeResponseDto employee = employees.next();
+            printer.printRecord(
+                    employee.firstname(),
+                    employee.lastname(),
+                    employee.username(),
+                    employee.position(),
+                    employee.salary(),
+                    employee.department() == null ? null : employee.department().name());
+            if (++rows % FLUSH_ROWS == 0) {
+                printer.flush();
+            }
+        }
+        printer.flush();
+        return rows;
+    }
+
+    private static long writeXlsx(Iterator<EmployeeResponseDto> employees, OutputStream outputStream) throws IOException {
+        long rows = 0;
+        Workbook workbook = new Workbook(outputStream, "employee_accounting", "1.0");
+        Worksheet worksheet = workbook.newWorksheet("employees");
+        for (int column = 0; column < COLUMNS.size(); column++) {
+            worksheet.value(0, column, COLUMNS.get(column));
+        }
+        while (employees.hasNext()) {
+            EmployeeResponseDto employee = employees.next();
+            int row = (int) ++rows;
+            worksheet.value(row, 0, employee.firstname());
+            worksheet.value(row, 1, employee.lastname());
+            worksheet.value(row, 2, employee.username());
+            worksheet.value(row, 3, employee.position());
+            worksheet.value(row, 4, employee.salary());
+            worksheet.value(row, 5, employee.department() == null ? null : employee.department().name());
+            if (rows % FLUSH_ROWS == 0) {
+                worksheet.flush();
+            }
+        }
+        workbook.finish();
+        return rows;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package org.javacode.employee_accounting.service.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.javacode.employee_accounting.autocomplete.EmployeeAutocompleteIndex;
+import org.javacode.employee_accounting.availability.EmployeeAvailabilityIndex;
+import org.javacode.employee_accounting.changes.ChangeOutbox;
+import org.javacode.employee_accounting.etag.ChangeCounters;
+import org.javacode.employee_accounting.exception.InvalidImportFileException;
+import org.javacode.employee_accounting.mapper.create.EmployeeCreateEditMapper;
+import org.javacode.employee_accounting.mapper.response.EmployeeResponseMapper;
+import org.javacode.employee_accounting.model.dto.create.DepartmentCreateEditDto;
+import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.ImportResultDto;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.ChangeOperation;
+import org.javacode.employee_accounting.model.entity.Department;
+import org.javacode.employee_accounting.model.entity.Employee;
+import org.javacode.employee_accounting.model.entity.Role;
+import org.javacode.employee_accounting.model.projections.EmployeeAccountProjection;
+import org.javacode.employee_accounting.model.projections.EmployeeIdentity;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.security.AdaptiveBCryptPasswordEncoder;
+import org.javacode.employee_accounting.service.DepartmentService;
+import org.javacode.employee_accounting.service.DepartmentStatsService;
+import org.javacode.employee_accounting.service.EmployeeImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+
+    private static final List<String> COLUMNS = List.of(
+            "firstname", "lastname", "email", "password", "username", "position", "role", "salary", "department");
+    private static final CSVFormat INPUT_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setTrim(true)
+            .setIgnoreEmptyLines(true)
+            .build();
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportServiceImpl.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentService departmentService;
+    private final EmployeeCreateEditMapper employeeCreateEditMapper;
+    private final AdaptiveBCryptPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EmployeeAutocompleteIndex employeeAutocompleteIndex;
+    private final EmployeeAvailabilityIndex employeeAvailabilityIndex;
+    private final ChangeCounters changeCounters;
+    private final ChangeOutbox changeOutbox;
+    private final EmployeeResponseMapper employeeResponseMapper;
+    private final DepartmentStatsService departmentStatsService;
+
+    @Value("${employee.import.batch-size:1000}")
+    private int batchSize;
+
+    private record ImportRow(CSVRecord record, EmployeeCreateEditDto employee) {
+    }
+
+    /**
+     * Файл читается потоково, в памяти одновременно не больше batchSize строк.
+     * Каждая порция фиксируется своей транзакцией, поэтому ошибка в конце файла
+     * не откатывает уже загруженные порции.
+     */
+    @Override
+    public ImportResultDto importCsv(Reader csv, Writer rejects) throws IOException {
+        long started = System.nanoTime();
+        long imported = 0;
+        long rejected = 0;
+
+        try (CSVParser parser = INPUT_FORMAT.parse(csv);
+             CSVPrinter rejectPrinter = new CSVPrinter(rejects, CSVFormat.DEFAULT.builder()
+                     .setHeader(Stream.concat(Stream.of("record", "error"), COLUMNS.stream()).toArray(String[]::new))
+                     .build())) {
+            if (!parser.getHeaderNames().containsAll(COLUMNS)) {
+                throw new InvalidImportFileException("CSV header must contain columns " + String.join(",", COLUMNS));
+            }
+
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            for (CSVRecord record : parser) {
+                String error = null;
+                EmployeeCreateEditDto employee = null;
+                try {
+                    employee = toDto(record);
+                    error = validate(employee);
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+                if (error != null) {
+                    reject(rejectPrinter, record, error);
+                    rejected++;
+                    continue;
+                }
+                batch.add(new ImportRow(record, employee));
+                if (batch.size() == batchSize) {
+                    long loaded = loadBatch(batch, rejectPrinter);
+                    imported += loaded;
+                    rejected += batch.size() - loaded;
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                long loaded = loadBatch(batch, rejectPrinter);
+                imported += loaded;
+                rejected += batch.size() - loaded;
+            }
+        }
+
+        logger.info(String.format("Employee import finished: %d imported, %d rejected in %d ms",
+                imported, rejected, (System.nanoTime() - started) / 1_000_000));
+        return new ImportResultDto(imported, rejected);
+    }
+
+    private long loadBatch(List<ImportRow> batch, CSVPrinter rejectPrinter) throws IOException {
+        List<ImportRow> unique = rejectDuplicates(batch, rejectPrinter);
+        if (unique.isEmpty()) {
+            return 0;
+        }
+
+        List<String> encodedPasswords = passwordEncoder.encodeAll(unique.stream()
+                .map(row -> row.employee().password())
+                .toList());
+
+        Set<String> inserted = transactionTemplate.execute(status -> {
+            Map<String, Department> departments = departmentService.findOrCreateDepartments(unique.stream()
+                    .map(row -> row.employee().department().name())
+                    .collect(Collectors.toSet()));
+            List<Employee> employees = new ArrayList<>(unique.size());
+            for (int i = 0; i < unique.size(); i++) {
+                EmployeeCreateEditDto dto = unique.get(i).employee();
+                Employee employee = employeeCreateEditMapper.map(dto, encodedPasswords.get(i));
+                employee.setDepartment(departments.get(dto.department().name()));
+                employees.add(employee);
+            }
+            Set<String> importedUsernames = employeeRepository.importAll(employees);
+            changeCounters.changed(ChangeCounters.EMPLOYEES);
+            List<Employee> imported = employees.stream()
+                    .filter(employee -> importedUsernames.contains(employee.getUsername()))
+                    .toList();
+            departmentStatsService.employeesAdded(imported);
+            recordCreated(imported);
+            imported.forEach(employee -> employeeAvailabilityIndex.add(employee.getUsername(), employee.getEmail()));
+            return importedUsernames;
+        });
+
+        // Строки, которые опередил параллельный импорт или создание с тем же username
+        for (ImportRow row : unique) {
+            EmployeeCreateEditDto dto = row.employee();
+            if (inserted.contains(dto.username())) {
+                employeeAutocompleteIndex.add(dto.firstname(), dto.lastname(), dto.position());
+            } else {
+                reject(rejectPrinter, row.record(), "User with username " + dto.username() + " already exists");
+            }
+        }
+        return inserted.size();
+    }
+
+    // Порция не больше batchSize, идентификаторы читаются одним запросом
+    private void recordCreated(List<Employee> imported) {
+        if (imported.isEmpty()) {
+            return;
+        }
+        Map<String, Long> ids = employeeRepository.findAccountsByUsernameIn(imported.stream()
+                        .map(Employee::getUsername)
+                        .toList()).stream()
+                .collect(Collectors.toMap(EmployeeAccountProjection::getUsername, EmployeeAccountProjection::getId));
+        changeOutbox.recordAll(imported.stream()
+                .map(employee -> new ChangeOutbox.Change(ChangeEntity.EMPLOYEE, ids.get(employee.getUsername()),
+                        ChangeOperation.CREATED, employeeResponseMapper.map(employee)))
+                .toList());
+    }
+
+    private List<ImportRow> rejectDuplicates(List<ImportRow> batch, CSVPrinter rejectPrinter) throws IOException {
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        List<EmployeeIdentity> existing = employeeRepository.findIdentities(
+                batch.stream().map(row -> row.employee().username()).toList(),
+                batch.stream().map(row -> row.employee().email()).toList());
+        existing.forEach(identity -> {
+            takenUsernames.add(identity.getUsername());
+            takenEmails.add(identity.getEmail());
+        });
+
+        List<ImportRow> unique = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            EmployeeCreateEditDto employee = row.employee();
+            if (takenUsernames.contains(employee.username())) {
+                reject(rejectPrinter, row.record(), "User with username " + employee.username() + " already exists");
+            } else if (takenEmails.contains(employee.email())) {
+                reject(rejectPrinter, row.record(), "User with email " + employee.email() + " already exists");
+            } else {
+                takenUsernames.add(employee.username());
+                takenEmails.add(employee.email());
+                unique.add(row);
+            }
+        }
+        return unique;
+    }
+
+    private static EmployeeCreateEditDto toDto(CSVRecord record) {
+        if (!record.isConsistent()) {
+            throw new IllegalArgumentException("Expected " + COLUMNS.size() + " columns");
+        }
+        Double salary;
+        try {
+            salary = Double.valueOf(record.get("salary"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("salary must be a number");
+        }
+        Role role;
+        try {
+            role = Role.valueOf(record.get("role"));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("role must be one of USER, MODERATOR, ADMIN");
+        }
+        return new EmployeeCreateEditDto(
+                record.get("firstname"),
+                record.get("lastname"),
+                record.get("email"),
+                record.get("password"),
+                record.get("username"),
+                record.get("position"),
+                role,
+                salary,
+                new DepartmentCreateEditDto(record.get("department")));
+    }
+
+    // Те же ограничения, что и у EmployeeCreateEditDto при создании через API
+    private String validate(EmployeeCreateEditDto employee) {
+        Set<String> errors = new TreeSet<>();
+        for (ConstraintViolation<EmployeeCreateEditDto> violation : validator.validate(employee)) {
+            errors.add(violation.getPropertyPath() + " " + violation.getMessage());
+        }
+        for (ConstraintViolation<DepartmentCreateEditDto> violation : validator.validate(employee.department())) {
+            errors.add("department." + violation.getPropertyPath() + " " + violation.getMessage());
+        }
+        if (employee.firstname().isEmpty() || employee.lastname().isEmpty()
+                || employee.email().isEmpty() || employee.password().isEmpty()) {
+            errors.add("firstname, lastname, email and password are required");
+        }
+        return errors.isEmpty() ? null : String.join("; ", errors);
+    }
+
+    private static void reject(CSVPrinter rejectPrinter, CSVRecord record, String error) throws IOException {
+        List<Object> values = new ArrayList<>();
+        values.add(record.getRecordNumber());
+        values.add(error);
+        for (String column : COLUMNS) {
+            values.add(record.isSet(column) && !"password".equals(column) ? record.get(column) : "");
+        }
+        rejectPrinter.printRecord(values);
+    }
+}
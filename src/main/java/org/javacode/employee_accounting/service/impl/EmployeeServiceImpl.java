@@ -1,46 +1,157 @@
 package org.javacode.employee_accounting.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.javacode.employee_accounting.autocomplete.EmployeeAutocompleteIndex;
+import org.javacode.employee_accounting.availability.EmployeeAvailabilityIndex;
+import org.javacode.employee_accounting.changes.ChangeOutbox;
+import org.javacode.employee_accounting.etag.ChangeCounters;
+import org.javacode.employee_accounting.etag.EntityTags;
 import org.javacode.employee_accounting.exception.AlreadyExistsException;
+import org.javacode.employee_accounting.exception.PreconditionFailedException;
 import org.javacode.employee_accounting.exception.ResourceNotFoundException;
 import org.javacode.employee_accounting.mapper.create.EmployeeCreateEditMapper;
 import org.javacode.employee_accounting.mapper.response.EmployeeResponseMapper;
+import org.javacode.employee_accounting.model.dto.EmployeeBlockDto;
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
 import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.AutocompleteSuggestionDto;
+import org.javacode.employee_accounting.model.dto.response.AvailabilityDto;
 import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.javacode.employee_accounting.model.dto.response.KeysetPageResponseDto;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.ChangeOperation;
+import org.javacode.employee_accounting.model.entity.Department;
 import org.javacode.employee_accounting.model.entity.Employee;
+import org.javacode.employee_accounting.model.entity.Role;
+import org.javacode.employee_accounting.model.projections.EmployeeAccountProjection;
+import org.javacode.employee_accounting.model.projections.EmployeeIdentity;
 import org.javacode.employee_accounting.model.projections.EmployeeProjection;
+import org.javacode.employee_accounting.pagination.KeysetCursor;
+import org.javacode.employee_accounting.pagination.KeysetCursorCodec;
 import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.repository.EmployeeSpecifications;
+import org.javacode.employee_accounting.security.SecurityVersionIndex;
 import org.javacode.employee_accounting.service.DepartmentService;
+import org.javacode.employee_accounting.service.DepartmentStatsService;
 import org.javacode.employee_accounting.service.EmployeeService;
+import org.javacode.employee_accounting.service.SyncService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // Поля, по которым возможна keyset-пагинация (для каждого есть индекс (поле, id))
+    private static final Map<String, Class<?>> KEYSET_SORTABLE = Map.of(
+            "id", Long.class,
+            "username", String.class,
+            "email", String.class,
+            "role", Role.class,
+            "firstName", String.class,
+            "lastName", String.class,
+            "position", String.class,
+            "salary", Double.class);
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+
     private final EmployeeRepository employeeRepository;
     private final DepartmentService departmentService;
+    private final DepartmentStatsService departmentStatsService;
     private final EmployeeResponseMapper employeeResponseMapper;
     private final EmployeeCreateEditMapper employeeCreateEditMapper;
+    private final SecurityVersionIndex securityVersionIndex;
+    private final KeysetCursorCodec keysetCursorCodec;
+    private final EmployeeAutocompleteIndex employeeAutocompleteIndex;
+    private final EmployeeAvailabilityIndex employeeAvailabilityIndex;
+    private final ChangeCounters changeCounters;
+    private final ChangeOutbox changeOutbox;
+    private final SyncService syncService;
+    // Проверки занятости, на которые фильтр ответил сам, и те, что дошли до БД
+    private final Counter availabilityFilterHits;
+    private final Counter availabilityDatabaseChecks;
+    private final int blockChunkSize;
+    // Read-through кэши горячих профилей. Загрузка по промаху выполняется одним потоком на ключ,
+    // отсутствующие сотрудники не кэшируются (загрузчик возвращает null)
+    private final LoadingCache<Long, EmployeeResponseDto> responsesById;
+    private final LoadingCache<String, EmployeeResponseDto> responsesByUsername;
+    private final LoadingCache<Long, Boolean> accountNonLockedById;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository,
+                               DepartmentService departmentService,
+                               DepartmentStatsService departmentStatsService,
+                               EmployeeResponseMapper employeeResponseMapper,
+                               EmployeeCreateEditMapper employeeCreateEditMapper,
+                               SecurityVersionIndex securityVersionIndex,
+                               KeysetCursorCodec keysetCursorCodec,
+                               EmployeeAutocompleteIndex employeeAutocompleteIndex,
+                               EmployeeAvailabilityIndex employeeAvailabilityIndex,
+                               ChangeCounters changeCounters,
+                               ChangeOutbox changeOutbox,
+                               SyncService syncService,
+                               @Value("${employee.cache.max-size:10000}") long cacheMaxSize,
+                               @Value("${employee.cache.ttl:5m}") Duration cacheTtl,
+                               @Value("${employee.bulk.lookup-chunk-size:1000}") int blockChunkSize,
+                               MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.departmentService = departmentService;
+        this.departmentStatsService = departmentStatsService;
+        this.employeeResponseMapper = employeeResponseMapper;
+        this.employeeCreateEditMapper = employeeCreateEditMapper;
+        this.securityVersionIndex = securityVersionIndex;
+        this.keysetCursorCodec = keysetCursorCodec;
+        this.employeeAutocompleteIndex = employeeAutocompleteIndex;
+        this.employeeAvailabilityIndex = employeeAvailabilityIndex;
+        this.changeCounters = changeCounters;
+        this.changeOutbox = changeOutbox;
+        this.syncService = syncService;
+        this.blockChunkSize = blockChunkSize;
+        this.availabilityFilterHits = Counter.builder("employee.availability.checks")
+                .tag("source", "filter")
+                .register(meterRegistry);
+        this.availabilityDatabaseChecks = Counter.builder("employee.availability.checks")
+                .tag("source", "database")
+                .register(meterRegistry);
+        this.responsesById = buildCache(cacheMaxSize, cacheTtl)
+                .build(id -> employeeRepository.findById(id).map(employeeResponseMapper::map).orElse(null));
+        this.responsesByUsername = buildCache(cacheMaxSize, cacheTtl)
+                .build(username -> employeeRepository.findResponseByUsername(username).orElse(null));
+        this.accountNonLockedById = buildCache(cacheMaxSize, cacheTtl)
+                .build(id -> employeeRepository.findAccountNonLockedById(id).orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, responsesById, "employees.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, responsesByUsername, "employees.by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, accountNonLockedById, "employees.account-non-locked");
+    }
 
     @Override
     public Optional<EmployeeResponseDto> findById(Long id) {
-        return employeeRepository.findById(id)
-                .map(employeeResponseMapper::map);
+        return Optional.ofNullable(responsesById.get(id));
     }
 
     @Override
     public Optional<EmployeeResponseDto> findByUsername(String username) {
-        return employeeRepository.findByUsername(username)
-                .map(employeeResponseMapper::map);
+        return Optional.ofNullable(responsesByUsername.get(username));
     }
 
     @Override
@@ -49,14 +160,85 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
-    public Page<EmployeeResponseDto> findAllEmployeeProjection(Pageable pageable) {
-        Page<Employee> page = employeeRepository.findAll(pageable);
-        return new PageImpl<>(page.getContent().stream()
+    @Transactional(readOnly = true)
+    public void streamAllEmployeeProjection(Consumer<EmployeeProjection> consumer) {
+        try (Stream<EmployeeProjection> projections = employeeRepository.streamAllEmployeeProjection()) {
+            projections.forEach(consumer);
+        }
+    }
+
+    @Override
+    public Page<EmployeeResponseDto> findAllEmployeeProjection(EmployeeFilterDto filter, Pageable pageable) {
+        // Без фильтров - DTO-запрос из кэша запросов
+        if (filter.isEmpty()) {
+            return employeeRepository.findAllResponses(pageable);
+        }
+        return employeeRepository.findAll(EmployeeSpecifications.matching(filter), pageable)
+                .map(employeeResponseMapper::map);
+    }
+
+    @Override
+    public KeysetPageResponseDto<EmployeeResponseDto> findAllByKeyset(String cursor, Pageable pageable) {
+        KeysetCursor keysetCursor = keysetCursorCodec.decode(cursor, pageable.getSort(), KEYSET_SORTABLE);
+        Window<Employee> window = employeeRepository.findAllBy(
+                keysetCursor.position(), keysetCursor.sort(), Limit.of(pageable.getPageSize()));
+        return new KeysetPageResponseDto<>(window.getContent().stream()
                 .map(employeeResponseMapper::map)
-                .toList(), pageable, page.getTotalElements());
+                .toList(), keysetCursorCodec.encodeNext(window, keysetCursor.sort()), window.hasNext());
     }
 
     @Override
+    public Page<EmployeeResponseDto> search(String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            return Page.empty(pageable);
+        }
+        return employeeRepository.search(query.trim(), pageable);
+    }
+
+    @Override
+    public List<AutocompleteSuggestionDto> autocomplete(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return employeeAutocompleteIndex.suggest(prefix, Math.min(Math.max(limit, 1), MAX_AUTOCOMPLETE_LIMIT));
+    }
+
+    @Override
+    public Optional<String> findEntityTag(Long id) {
+        return employeeRepository.findVersionById(id)
+                .map(version -> entityTag(version.getVersion(), version.getDepartmentId(), version.getDepartmentVersion()));
+    }
+
+    @Override
+    public String collectionTag() {
+        return changeCounters.collectionTag(ChangeCounters.EMPLOYEES);
+    }
+
+    @Override
+    public AvailabilityDto checkAvailability(String username, String email) {
+        boolean usernameMaybeTaken = username != null && employeeAvailabilityIndex.mightContainUsername(username);
+        boolean emailMaybeTaken = email != null && employeeAvailabilityIndex.mightContainEmail(email);
+        boolean usernameTaken = false;
+        boolean emailTaken = false;
+        if (usernameMaybeTaken || emailMaybeTaken) {
+            // Оба значения проверяются одним запросом
+            availabilityDatabaseChecks.increment();
+            for (EmployeeIdentity identity : employeeRepository.findIdentities(
+                    usernameMaybeTaken ? List.of(username) : List.of(),
+                    emailMaybeTaken ? List.of(email) : List.of())) {
+                usernameTaken |= usernameMaybeTaken && username.equals(identity.getUsername());
+                emailTaken |= emailMaybeTaken && email.equals(identity.getEmail());
+            }
+        } else {
+            availabilityFilterHits.increment();
+        }
+        return new AvailabilityDto(
+                username == null ? null : !usernameTaken,
+                email == null ? null : !emailTaken);
+    }
+
+    @Override
+    @Transactional
     public EmployeeResponseDto create(EmployeeCreateEditDto employeeDto) {
         checkUsernameAndEmail(employeeDto);
         return Optional.of(employeeDto)
@@ -66,59 +248,279 @@ public class EmployeeServiceImpl implements EmployeeService {
                     return employee;
                 })
                 .map(employeeRepository::save)
-                .map(employeeResponseMapper::map)
+                .map(employee -> {
+                    changeCounters.changed(ChangeCounters.EMPLOYEES);
+                    departmentStatsService.employeesAdded(List.of(employee));
+                    employeeAvailabilityIndex.add(employee.getUsername(), employee.getEmail());
+                    evict(employee.getId(), employee.getUsername());
+                    revokeSecurityVersion(employee.getUsername());
+                    employeeAutocompleteIndex.add(employee.getFirstName(), employee.getLastName(), employee.getPosition());
+                    return employee;
+                })
+                .map(employee -> recordChange(employee, ChangeOperation.CREATED))
                 .orElseThrow();
     }
 
     @Override
-    public Optional<EmployeeResponseDto> update(Long id, EmployeeCreateEditDto employeeDto) {
-        return employeeRepository.findById(id)
-                .map(employee -> employeeCreateEditMapper.map(employeeDto, employee))
-                .map(employee -> {
-                    employee.setDepartment(departmentService.findOrCreateDepartment(employee.getDepartment().getName()));
-                    return employee;
-                })
-                .map(employeeRepository::saveAndFlush)
-                .map(employeeResponseMapper::map);
+    @Transactional
+    public Optional<EmployeeResponseDto> update(Long id, EmployeeCreateEditDto employeeDto, String ifMatch) {
+        try {
+            return employeeRepository.findById(id)
+                    .map(employee -> {
+                        checkPrecondition(ifMatch, employee);
+                        Role previousRole = employee.getRole();
+                        String previousUsername = employee.getUsername();
+                        Department previousDepartment = employee.getDepartment();
+                        double previousSalary = employee.getSalary();
+                        String previousEmail = employee.getEmail();
+                        employeeAutocompleteIndex.remove(employee.getFirstName(), employee.getLastName(), employee.getPosition());
+                        employeeCreateEditMapper.map(employeeDto, employee);
+                        employee.setDepartment(departmentService.findOrCreateDepartment(employee.getDepartment().getName()));
+                        // Смена роли или имени пользователя делает выпущенные токены недействительными
+                        if (previousRole != employee.getRole() || !previousUsername.equals(employee.getUsername())) {
+                            employee.setSecurityVersion(employee.getSecurityVersion() + 1);
+                            revokeSecurityVersion(previousUsername);
+                        }
+                        if (!previousUsername.equals(employee.getUsername()) || !previousEmail.equals(employee.getEmail())) {
+                            employeeAvailabilityIndex.remove(previousUsername, previousEmail);
+                        }
+                        evict(employee.getId(), previousUsername);
+                        departmentStatsService.employeeChanged(previousDepartment, previousSalary, employee);
+                        return employee;
+                    })
+                    .map(employeeRepository::saveAndFlush)
+                    .map(employee -> {
+                        evict(employee.getId(), employee.getUsername());
+                        employeeAutocompleteIndex.add(employee.getFirstName(), employee.getLastName(), employee.getPosition());
+                        employeeAvailabilityIndex.add(employee.getUsername(), employee.getEmail());
+                        revokeSecurityVersion(employee.getUsername());
+                        changeCounters.changed(ChangeCounters.EMPLOYEES);
+                        return employee;
+                    })
+                    .map(employee -> recordChange(employee, ChangeOperation.UPDATED));
+        } catch (OptimisticLockingFailureException e) {
+            // Запись изменили между проверкой If-Match и flush
+            if (ifMatch != null) {
+                throw new PreconditionFailedException("Employee with id " + id + " has been modified");
+            }
+            throw e;
+        }
     }
 
     @Override
+    @Transactional
     public boolean delete(Long id) {
         return employeeRepository.findById(id)
                 .map(entity -> {
                     employeeRepository.deleteById(id);
                     employeeRepository.flush();
+                    departmentStatsService.employeeRemoved(entity);
+                    changeCounters.changed(ChangeCounters.EMPLOYEES);
+                    changeOutbox.record(ChangeEntity.EMPLOYEE, id, ChangeOperation.DELETED, null);
+                    syncService.recordDeletion(ChangeEntity.EMPLOYEE, id);
+                    employeeAvailabilityIndex.remove(entity.getUsername(), entity.getEmail());
+                    evict(id, entity.getUsername());
+                    employeeAutocompleteIndex.remove(entity.getFirstName(), entity.getLastName(), entity.getPosition());
+                    revokeSecurityVersion(entity.getUsername());
                     return true;
                 })
                 .orElse(false);
     }
 
+    private EmployeeResponseDto recordChange(Employee employee, ChangeOperation operation) {
+        EmployeeResponseDto response = employeeResponseMapper.map(employee);
+        changeOutbox.record(ChangeEntity.EMPLOYEE, employee.getId(), operation, response);
+        return response;
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) {
         return employeeRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException(username));
     }
 
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Employee employee = employeeRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(user.getUsername()));
+        employee.setPassword(newPassword);
+        return employee;
+    }
+
     @Override
     public boolean userIsLocked(Long id) {
-        return employeeRepository.findById(id)
-                .map(Employee::isAccountNonLocked)
+        return Optional.ofNullable(accountNonLockedById.get(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Employee with id " + id + " not found"));
     }
 
     @Override
+    @Transactional
     public void setBlock(Long id, Boolean block) {
         Employee employee = employeeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee with id " + id + " not found"));
-        employee.setAccountNonLocked(block);
+        if (employee.isAccountNonLocked() != block) {
+            employee.setAccountNonLocked(block);
+            employee.setSecurityVersion(employee.getSecurityVersion() + 1);
+            revokeSecurityVersion(employee.getUsername());
+            evict(id, employee.getUsername());
+        }
+    }
+
+    @Override
+    @Transactional
+    public long setBlock(EmployeeBlockDto blockDto) {
+        boolean accountNonLocked = !blockDto.locked();
+        long affected = 0;
+        if (blockDto.department() == null) {
+            List<Long> ids = blockDto.ids().stream().distinct().toList();
+            for (int from = 0; from < ids.size(); from += blockChunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + blockChunkSize));
+                affected += updateAccountNonLocked(employeeRepository.findAccountsToBlock(chunk, accountNonLocked),
+                        accountNonLocked);
+            }
+        } else {
+            List<EmployeeAccountProjection> accounts;
+            long afterId = 0;
+            do {
+                accounts = employeeRepository.findAccountsToBlock(blockDto.department(), afterId, accountNonLocked,
+                        Limit.of(blockChunkSize));
+                if (!accounts.isEmpty()) {
+                    afterId = accounts.get(accounts.size() - 1).getId();
+                    affected += updateAccountNonLocked(accounts, accountNonLocked);
+                }
+            } while (accounts.size() == blockChunkSize);
+        }
+        return affected;
+    }
+
+    @Override
+    public void lockAccount(Employee employee, int failedLoginAttempts) {
+        employeeRepository.lockAccount(employee.getUsername(), failedLoginAttempts);
+        securityVersionIndex.revoke(employee.getUsername());
+        evict(employee.getId(), employee.getUsername());
+    }
+
+    // Кэши ответов содержат название отдела; переименование редкое, поэтому они сбрасываются целиком,
+    // в том числе после завершения транзакции, чтобы не закэшировать старое название до коммита
+    @EventListener
+    public void onDepartmentChanged(DepartmentService.DepartmentChangedEvent event) {
+        Runnable invalidate = () -> {
+            responsesById.invalidateAll();
+            responsesByUsername.invalidateAll();
+        };
+        invalidate.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void clearCache() {
+        responsesById.invalidateAll();
+        responsesByUsername.invalidateAll();
+        accountNonLockedById.invalidateAll();
+    }
+
+    // Внутри транзакции запись повторяется после её завершения: иначе параллельное чтение
+    // успеет загрузить в кэш ещё не закоммиченное старое значение
+    private void evict(Long id, String username) {
+        responsesById.invalidate(id);
+        responsesByUsername.invalidate(username);
+        accountNonLockedById.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    responsesById.invalidate(id);
+                    responsesByUsername.invalidate(username);
+                    accountNonLockedById.invalidate(id);
+                }
+            });
+        }
+    }
+
+    // Новая версия не записывается в индекс до фиксации: при откате индекс опередил бы БД и отвергал
+    // все токены пользователя. Сброс повторяется после завершения, чтобы параллельное чтение
+    // не закэшировало старую версию до коммита
+    private void revokeSecurityVersion(String username) {
+        securityVersionIndex.revoke(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    securityVersionIndex.revoke(username);
+                }
+            });
+        }
+    }
+
+    // Один UPDATE на порцию; версии безопасности сбрасываются и после фиксации,
+    // чтобы параллельный запрос не закэшировал старую версию до коммита
+    private int updateAccountNonLocked(List<EmployeeAccountProjection> accounts, boolean accountNonLocked) {
+        if (accounts.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = accounts.stream().map(EmployeeAccountProjection::getId).toList();
+        List<String> usernames = accounts.stream().map(EmployeeAccountProjection::getUsername).toList();
+        int updated = employeeRepository.updateAccountNonLocked(ids, accountNonLocked);
+        Runnable invalidate = () -> {
+            responsesById.invalidateAll(ids);
+            responsesByUsername.invalidateAll(usernames);
+            accountNonLockedById.invalidateAll(ids);
+            usernames.forEach(securityVersionIndex::revoke);
+        };
+        invalidate.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate.run();
+                }
+            });
+        }
+        return updated;
+    }
+
+    private void checkPrecondition(String ifMatch, Employee employee) {
+        Department department = employee.getDepartment();
+        if (ifMatch != null && !EntityTags.matches(ifMatch, entityTag(employee.getVersion(),
+                department == null ? null : department.getId(),
+                department == null ? null : department.getVersion()))) {
+            throw new PreconditionFailedException("Employee with id " + employee.getId() + " has been modified");
+        }
+    }
+
+    // Представление сотрудника включает название отдела, поэтому в ETag входит и версия отдела
+    private static String entityTag(long version, Integer departmentId, Long departmentVersion) {
+        return departmentId == null
+                ? EntityTags.strong(version)
+                : EntityTags.strong(version, departmentId, departmentVersion);
+    }
+
+    private static Caffeine<Object, Object> buildCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats();
     }
 
+    // Фильтр Блума годится только для подсказки в checkAvailability: при записи ложное «свободно»
+    // после пересборки или рассинхронизации привело бы к дублю, поэтому здесь решает запрос к БД
     private void checkUsernameAndEmail(EmployeeCreateEditDto employeeDto) {
-        if (employeeRepository.existsByUsername(employeeDto.username())) {
+        // Оба значения проверяются одним запросом
+        List<EmployeeIdentity> existing = employeeRepository.findIdentities(
+                Collections.singletonList(employeeDto.username()), Collections.singletonList(employeeDto.email()));
+        if (existing.stream().anyMatch(identity -> identity.getUsername().equals(employeeDto.username()))) {
             throw new AlreadyExistsException("User with username " + employeeDto.username() + " already exists");
         }
 
-        if (employeeRepository.existsByEmail(employeeDto.email())) {
+        if (!existing.isEmpty()) {
             throw new AlreadyExistsException("User with email " + employeeDto.email() + " already exists");
         }
     }
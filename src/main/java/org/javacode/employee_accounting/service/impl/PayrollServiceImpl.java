@@ -0,0 +1,184 @@
+package org.javacode.employee_accounting.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.javacode.employee_accounting.exception.PayrollRunConflictException;
+import org.javacode.employee_accounting.model.dto.response.PayrollDepartmentTotalDto;
+import org.javacode.employee_accounting.model.dto.response.PayrollRunDto;
+import org.javacode.employee_accounting.model.entity.PayrollRun;
+import org.javacode.employee_accounting.model.entity.PayrollRunStatus;
+import org.javacode.employee_accounting.payroll.PayrollEngine;
+import org.javacode.employee_accounting.payroll.PayrollEngine.DepartmentTotal;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.repository.PayrollRunRepository;
+import org.javacode.employee_accounting.service.PayrollService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class PayrollServiceImpl implements PayrollService {
+
+    private static final String INSERT_DEPARTMENT_TOTAL =
+            "INSERT INTO payroll_department_totals (run_id, department_id, headcount, total_amount) VALUES (?, ?, ?, ?)";
+    private static final List<PayrollRunStatus> ACTIVE_STATUSES = List.of(PayrollRunStatus.RUNNING, PayrollRunStatus.COMPLETED);
+    private static final Logger logger = LoggerFactory.getLogger(PayrollServiceImpl.class);
+
+    private final PayrollRunRepository payrollRunRepository;
+    private final EmployeeRepository employeeRepository;
+    private final PayrollEngine payrollEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration staleRunTimeout;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("payroll-run-"));
+    // Прогресс выполняющихся запусков; завершённые читаются из payroll_runs
+    private final Map<Long, LongAdder> activeRuns = new ConcurrentHashMap<>();
+
+    public PayrollServiceImpl(PayrollRunRepository payrollRunRepository,
+                              EmployeeRepository employeeRepository,
+                              PayrollEngine payrollEngine,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${payroll.stale-run-timeout:1h}") Duration staleRunTimeout) {
+        this.payrollRunRepository = payrollRunRepository;
+        this.employeeRepository = employeeRepository;
+        this.payrollEngine = payrollEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.staleRunTimeout = staleRunTimeout;
+    }
+
+    @Override
+    public PayrollRunDto start(YearMonth period) {
+        // Одновременный запуск на другом узле отсекает уникальный индекс по периоду
+        if (payrollRunRepository.existsByPeriodAndStatusIn(period.toString(), ACTIVE_STATUSES)) {
+            throw new PayrollRunConflictException("Payroll for " + period + " is already running or completed");
+        }
+        PayrollRun run = payrollRunRepository.save(PayrollRun.builder()
+                .period(period.toString())
+                .status(PayrollRunStatus.RUNNING)
+                .employees(employeeRepository.count())
+                .startedAt(Instant.now())
+                .build());
+        LongAdder processed = new LongAdder();
+        activeRuns.put(run.getId(), processed);
+        runner.execute(() -> execute(run, processed));
+        return toDto(run, processed);
+    }
+
+    @Override
+    public Optional<PayrollRunDto> findRun(Long id) {
+        return payrollRunRepository.findById(id)
+                .map(run -> toDto(run, activeRuns.get(id)));
+    }
+
+    @Override
+    public List<PayrollDepartmentTotalDto> findDepartmentTotals(Long runId) {
+        return payrollRunRepository.findDepartmentTotals(runId);
+    }
+
+    private void execute(PayrollRun run, LongAdder processed) {
+        try {
+            Map<Integer, DepartmentTotal> totals = payrollEngine.run(run.getId(), processed::add);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_DEPARTMENT_TOTAL, new ArrayList<>(totals.entrySet()), Math.max(1, totals.size()),
+                        (ps, total) -> {
+                            ps.setLong(1, run.getId());
+                            ps.setObject(2, total.getKey(), Types.INTEGER);
+                            ps.setLong(3, total.getValue().headcount());
+                            ps.setDouble(4, total.getValue().amount());
+                        });
+                run.setStatus(PayrollRunStatus.COMPLETED);
+                run.setProcessed(processed.sum());
+                run.setTotalAmount(totals.values().stream().mapToDouble(DepartmentTotal::amount).sum());
+                run.setFinishedAt(Instant.now());
+                payrollRunRepository.save(run);
+            });
+            logger.info(String.format("Payroll run %d for %s: %d employees in %d ms (%.0f employees/s)",
+                    run.getId(), run.getPeriod(), run.getProcessed(),
+                    Duration.between(run.getStartedAt(), run.getFinishedAt()).toMillis(),
+                    employeesPerSecond(run.getProcessed(), run.getStartedAt(), run.getFinishedAt())));
+        } catch (RuntimeException e) {
+            logger.error("Payroll run " + run.getId() + " failed", e);
+            run.setProcessed(processed.sum());
+            fail(run, String.valueOf(e.getMessage()));
+        } finally {
+            activeRuns.remove(run.getId());
+        }
+    }
+
+    /**
+     * Запуски, оставшиеся в RUNNING после остановки узла: их начисления удаляются,
+     * а период снова можно рассчитать. Порог защищает запуски, которые ещё выполняются на других узлах.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${payroll.stale-run-check-interval-ms:600000}",
+            initialDelayString = "${payroll.stale-run-check-interval-ms:600000}")
+    public void recoverStaleRuns() {
+        for (PayrollRun run : payrollRunRepository.findAllByStatusAndStartedAtBefore(
+                PayrollRunStatus.RUNNING, Instant.now().minus(staleRunTimeout))) {
+            if (!activeRuns.containsKey(run.getId())) {
+                logger.warn(String.format("Payroll run %d for %s was interrupted", run.getId(), run.getPeriod()));
+                fail(run, "Interrupted before completion");
+            }
+        }
+    }
+
+    // Частично записанные начисления удаляются вместе со сменой статуса
+    private void fail(PayrollRun run, String error) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM payroll_entries WHERE run_id = ?", run.getId());
+            jdbcTemplate.update("DELETE FROM payroll_department_totals WHERE run_id = ?", run.getId());
+            run.setStatus(PayrollRunStatus.FAILED);
+            run.setFinishedAt(Instant.now());
+            run.setError(error);
+            payrollRunRepository.save(run);
+        });
+    }
+
+    private static PayrollRunDto toDto(PayrollRun run, LongAdder active) {
+        long processed = active != null ? active.sum() : run.getProcessed();
+        Instant until = run.getFinishedAt() != null ? run.getFinishedAt() : Instant.now();
+        return new PayrollRunDto(
+                run.getId(),
+                run.getPeriod(),
+                run.getStatus(),
+                run.getEmployees(),
+                processed,
+                run.getEmployees() == 0 ? 1 : Math.min(1, (double) processed / run.getEmployees()),
+                run.getTotalAmount(),
+                employeesPerSecond(processed, run.getStartedAt(), until),
+                run.getStartedAt(),
+                run.getFinishedAt(),
+                run.getError());
+    }
+
+    private static double employeesPerSecond(long processed, Instant from, Instant until) {
+        long millis = Math.max(1, Duration.between(from, until).toMillis());
+        return processed * 1000.0 / millis;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+}
@@ -0,0 +1,177 @@
+package org.javacode.employee_accounting.service.impl;
+
+import org.javacode.employee_accounting.exception.SyncWatermarkExpiredException;
+import org.javacode.employee_accounting.model.dto.response.DepartmentSyncDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeSyncDto;
+import org.javacode.employee_accounting.model.dto.response.SyncPageDto;
+import org.javacode.employee_accounting.model.entity.ChangeEntity;
+import org.javacode.employee_accounting.model.entity.Tombstone;
+import org.javacode.employee_accounting.pagination.SyncCursor;
+import org.javacode.employee_accounting.pagination.SyncCursorCodec;
+import org.javacode.employee_accounting.repository.DepartmentRepository;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.repository.TombstoneRepository;
+import org.javacode.employee_accounting.service.SyncService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+@Service
+public class SyncServiceImpl implements SyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncServiceImpl.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentRepository departmentRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final SyncCursorCodec syncCursorCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration settleWindow;
+    private final Duration tombstoneTtl;
+    private final int maxPageSize;
+    private final int purgeBatchSize;
+
+    public SyncServiceImpl(EmployeeRepository employeeRepository,
+                           DepartmentRepository departmentRepository,
+                           TombstoneRepository tombstoneRepository,
+                           SyncCursorCodec syncCursorCodec,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${sync.settle-window:5s}") Duration settleWindow,
+                           @Value("${sync.tombstone-ttl:30d}") Duration tombstoneTtl,
+                           @Value("${sync.max-page-size:1000}") int maxPageSize,
+                           @Value("${sync.purge.batch-size:1000}") int purgeBatchSize) {
+        this.employeeRepository = employeeRepository;
+        this.departmentRepository = departmentRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.syncCursorCodec = syncCursorCodec;
+        this.transactionTemplate = transactionTemplate;
+        this.settleWindow = settleWindow;
+        this.tombstoneTtl = tombstoneTtl;
+        this.maxPageSize = maxPageSize;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SyncPageDto<EmployeeSyncDto> employeeChanges(Instant since, String cursor, int size) {
+        return findChanges(ChangeEntity.EMPLOYEE, since, cursor, size,
+                employeeRepository::findUpdatedBetween, EmployeeSyncDto::updatedAt, EmployeeSyncDto::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SyncPageDto<DepartmentSyncDto> departmentChanges(Instant since, String cursor, int size) {
+        return findChanges(ChangeEntity.DEPARTMENT, since, cursor, size,
+                (afterTimestamp, afterId, horizon, limit) ->
+                        departmentRepository.findUpdatedBetween(afterTimestamp, (int) afterId, horizon, limit),
+                DepartmentSyncDto::updatedAt, DepartmentSyncDto::id);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(ChangeEntity entity, long entityId) {
+        tombstoneRepository.save(Tombstone.builder()
+                .entity(entity)
+                .entityId(entityId)
+                .deletedAt(Instant.now())
+                .build());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${sync.purge.interval-ms:3600000}",
+            initialDelayString = "${sync.purge.interval-ms:3600000}")
+    public int purgeTombstones() {
+        Instant before = Instant.now().minus(tombstoneTtl);
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> tombstoneRepository.deleteExpired(before, purgeBatchSize));
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            logger.info(String.format("Purged %d tombstones older than %s", purged, tombstoneTtl));
+        }
+        return purged;
+    }
+
+    private <T> SyncPageDto<T> findChanges(ChangeEntity entity, Instant since, String cursor, int size,
+                                           UpsertFinder<T> upsertFinder, Function<T, Instant> updatedAt,
+                                           ToLongFunction<T> id) {
+        SyncCursor position = cursor == null || cursor.isBlank()
+                ? start(entity, since)
+                : syncCursorCodec.decode(cursor, entity);
+        int limit = Math.min(Math.max(size, 1), maxPageSize);
+
+        List<T> upserts = List.of();
+        if (position.phase() == SyncCursor.Phase.UPSERTS) {
+            // Лишняя строка показывает, есть ли продолжение, без отдельного count
+            List<T> rows = upsertFinder.find(position.afterTimestamp(), position.afterId(), position.horizon(),
+                    Limit.of(limit + 1));
+            if (rows.size() > limit) {
+                upserts = rows.subList(0, limit);
+                T last = upserts.get(limit - 1);
+                SyncCursor next = position.after(updatedAt.apply(last), id.applyAsLong(last));
+                return new SyncPageDto<>(upserts, List.of(), syncCursorCodec.encode(next), true, null);
+            }
+            upserts = rows;
+            if (position.since() == null) {
+                return new SyncPageDto<>(upserts, List.of(), null, false, position.horizon());
+            }
+            // Остаток страницы заполняется удалениями
+            position = position.deletions();
+            limit -= upserts.size();
+        }
+
+        List<Tombstone> tombstones = tombstoneRepository.findDeletedBetween(entity, position.afterTimestamp(),
+                position.afterId(), position.horizon(), Limit.of(limit + 1));
+        if (tombstones.size() > limit) {
+            tombstones = tombstones.subList(0, limit);
+            SyncCursor next = tombstones.isEmpty()
+                    ? position
+                    : position.after(tombstones.get(limit - 1).getDeletedAt(), tombstones.get(limit - 1).getId());
+            return new SyncPageDto<>(upserts, entityIds(tombstones), syncCursorCodec.encode(next), true, null);
+        }
+        return new SyncPageDto<>(upserts, entityIds(tombstones), null, false, position.horizon());
+    }
+
+    /**
+     * Граница дельты отстаёт от текущего времени на settle-window: строка получает updated_at
+     * до фиксации, и транзакция, зафиксированная позже чтения, иначе выпала бы из обеих дельт.
+     */
+    private SyncCursor start(ChangeEntity entity, Instant since) {
+        Instant now = Instant.now();
+        if (since != null && since.isBefore(now.minus(tombstoneTtl))) {
+            throw new SyncWatermarkExpiredException("Watermark " + since + " is older than tombstone retention, "
+                    + "full resync required");
+        }
+        Instant horizon = now.minus(settleWindow).truncatedTo(ChronoUnit.MICROS);
+        if (since != null && since.isAfter(horizon)) {
+            horizon = since;
+        }
+        return SyncCursor.start(entity, since, horizon);
+    }
+
+    private static List<Long> entityIds(List<Tombstone> tombstones) {
+        return tombstones.stream()
+                .map(Tombstone::getEntityId)
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface UpsertFinder<T> {
+        List<T> find(Instant afterTimestamp, long afterId, Instant horizon, Limit limit);
+    }
+}
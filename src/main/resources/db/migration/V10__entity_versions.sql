@@ -0,0 +1,18 @@
+-- Версии строк для оптимистической блокировки и ETag
+ALTER TABLE employees
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE departments
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Счётчики изменений таблиц: из них строятся слабые ETag списков
+CREATE TABLE IF NOT EXISTS change_counters
+(
+    name    VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO change_counters (name, version)
+VALUES ('employees', 0),
+       ('departments', 0)
+ON CONFLICT (name) DO NOTHING;
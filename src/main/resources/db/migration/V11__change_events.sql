@@ -0,0 +1,18 @@
+-- Transactional outbox: событие пишется в транзакции изменения. Номер sequence
+-- присваивает relay после фиксации, поэтому порядок номеров совпадает с порядком видимости
+CREATE TABLE IF NOT EXISTS change_events
+(
+    id          BIGSERIAL PRIMARY KEY,
+    sequence    BIGINT UNIQUE,
+    entity      VARCHAR(32)              NOT NULL,
+    entity_id   BIGINT                   NOT NULL,
+    operation   VARCHAR(16)              NOT NULL,
+    data        TEXT,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_change_events_pending ON change_events (id) WHERE sequence IS NULL;
+
+INSERT INTO change_counters (name, version)
+VALUES ('change_events', 0)
+ON CONFLICT (name) DO NOTHING;
@@ -0,0 +1,19 @@
+-- Время последнего изменения строки для дельта-синхронизации клиентов.
+-- Существующие строки получают время миграции и попадут в первую дельту
+ALTER TABLE employees ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE departments ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS idx_employees_updated_at_id ON employees (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_departments_updated_at_id ON departments (updated_at, id);
+
+-- Надгробия удалённых записей: хранятся tombstone-ttl, затем удаляются порциями
+CREATE TABLE IF NOT EXISTS tombstones
+(
+    id         BIGSERIAL PRIMARY KEY,
+    entity     VARCHAR(32)              NOT NULL,
+    entity_id  BIGINT                   NOT NULL,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_tombstones_entity_deleted_at_id ON tombstones (entity, deleted_at, id);
+CREATE INDEX IF NOT EXISTS idx_tombstones_deleted_at ON tombstones (deleted_at);
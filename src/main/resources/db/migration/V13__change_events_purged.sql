@@ -0,0 +1,4 @@
+-- Наибольший удалённый номер события: Last-Event-ID меньше него означает, что часть ленты уже удалена
+INSERT INTO change_counters (name, version)
+VALUES ('change_events_purged', 0)
+ON CONFLICT (name) DO NOTHING;
@@ -0,0 +1,3 @@
+-- Не больше одного выполняющегося или завершённого расчёта за период; после FAILED период можно пересчитать
+CREATE UNIQUE INDEX IF NOT EXISTS uq_payroll_runs_period_active ON payroll_runs (period)
+    WHERE status IN ('RUNNING', 'COMPLETED');
@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS departments
+(
+    id   SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS employees
+(
+    id                    BIGSERIAL PRIMARY KEY,
+    username              VARCHAR(255)     NOT NULL UNIQUE,
+    password              VARCHAR(255)     NOT NULL,
+    email                 VARCHAR(255)     NOT NULL,
+    role                  VARCHAR(255)     NOT NULL,
+    first_name            VARCHAR(255)     NOT NULL,
+    last_name             VARCHAR(255)     NOT NULL,
+    position              VARCHAR(255)     NOT NULL,
+    salary                DOUBLE PRECISION NOT NULL,
+    is_account_non_locked BOOLEAN          NOT NULL,
+    failed_login_attempts INTEGER          NOT NULL,
+    department_id         INTEGER REFERENCES departments (id)
+);
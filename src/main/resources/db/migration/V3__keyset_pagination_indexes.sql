@@ -0,0 +1,7 @@
+-- Индексы (поле сортировки, id) для keyset-пагинации /api/v1/employee/all
+CREATE INDEX IF NOT EXISTS idx_employees_email_id ON employees (email, id);
+CREATE INDEX IF NOT EXISTS idx_employees_role_id ON employees (role, id);
+CREATE INDEX IF NOT EXISTS idx_employees_first_name_id ON employees (first_name, id);
+CREATE INDEX IF NOT EXISTS idx_employees_last_name_id ON employees (last_name, id);
+CREATE INDEX IF NOT EXISTS idx_employees_position_id ON employees (position, id);
+CREATE INDEX IF NOT EXISTS idx_employees_salary_id ON employees (salary, id);
@@ -0,0 +1,23 @@
+-- Поиск сотрудников: полнотекстовый (tsvector) и нечёткий (pg_trgm) по одному и тому же тексту
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- IMMUTABLE, чтобы выражение можно было индексировать
+CREATE OR REPLACE FUNCTION employee_search_text(first_name TEXT, last_name TEXT, username TEXT,
+                                                email TEXT, "position" TEXT)
+    RETURNS TEXT
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+AS
+$$
+SELECT lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '') || ' ' || coalesce(username, '') || ' ' ||
+             coalesce(email, '') || ' ' || coalesce("position", ''))
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_employees_search_tsv ON employees
+    USING gin (to_tsvector('simple', employee_search_text(first_name, last_name, username, email, position)));
+CREATE INDEX IF NOT EXISTS idx_employees_search_trgm ON employees
+    USING gin (employee_search_text(first_name, last_name, username, email, position) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_departments_name_tsv ON departments USING gin (to_tsvector('simple', lower(name)));
+CREATE INDEX IF NOT EXISTS idx_departments_name_trgm ON departments USING gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,4 @@
+-- Индексы для фильтров /api/v1/employee/all.
+-- Роль, должность и зарплата покрыты индексами (поле, id) из V3
+CREATE INDEX IF NOT EXISTS idx_employees_department_id ON employees (department_id);
+CREATE INDEX IF NOT EXISTS idx_employees_last_name_first_name ON employees (last_name, first_name);
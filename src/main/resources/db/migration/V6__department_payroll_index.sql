@@ -0,0 +1,3 @@
+-- Покрывающий индекс для аналитики фонда оплаты: агрегаты по отделу и роли
+-- читаются index-only scan без обращения к таблице
+CREATE INDEX IF NOT EXISTS idx_employees_department_id_role_salary ON employees (department_id, role, salary);
@@ -0,0 +1,15 @@
+-- Численность и фонд оплаты по отделам. Строки меняются приращениями
+-- в транзакциях записи сотрудников, расхождения исправляет периодическая сверка
+CREATE TABLE IF NOT EXISTS department_stats
+(
+    department_id INTEGER PRIMARY KEY REFERENCES departments (id) ON DELETE CASCADE,
+    headcount     BIGINT           NOT NULL,
+    total_salary  DOUBLE PRECISION NOT NULL
+);
+
+INSERT INTO department_stats (department_id, headcount, total_salary)
+SELECT d.id, count(e.id), coalesce(sum(e.salary), 0)
+FROM departments d
+         LEFT JOIN employees e ON e.department_id = d.id
+GROUP BY d.id
+ON CONFLICT (department_id) DO NOTHING;
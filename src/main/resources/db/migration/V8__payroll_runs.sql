@@ -0,0 +1,33 @@
+CREATE TABLE IF NOT EXISTS payroll_runs
+(
+    id            BIGSERIAL PRIMARY KEY,
+    period        VARCHAR(7)               NOT NULL,
+    status        VARCHAR(255)             NOT NULL,
+    employees     BIGINT                   NOT NULL,
+    processed     BIGINT                   NOT NULL,
+    total_amount  DOUBLE PRECISION         NOT NULL,
+    started_at    TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at   TIMESTAMP WITH TIME ZONE,
+    error         VARCHAR(1000)
+);
+
+-- Начисления не ссылаются на employees: расчёт остаётся после удаления сотрудника
+CREATE TABLE IF NOT EXISTS payroll_entries
+(
+    run_id        BIGINT           NOT NULL REFERENCES payroll_runs (id) ON DELETE CASCADE,
+    employee_id   BIGINT           NOT NULL,
+    department_id INTEGER,
+    amount        DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (run_id, employee_id)
+);
+
+CREATE TABLE IF NOT EXISTS payroll_department_totals
+(
+    id            BIGSERIAL PRIMARY KEY,
+    run_id        BIGINT           NOT NULL REFERENCES payroll_runs (id) ON DELETE CASCADE,
+    department_id INTEGER,
+    headcount     BIGINT           NOT NULL,
+    total_amount  DOUBLE PRECISION NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_payroll_department_totals_run_id ON payroll_department_totals (run_id);
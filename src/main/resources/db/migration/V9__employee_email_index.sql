@@ -0,0 +1,2 @@
+-- Проверка занятости email при регистрации, когда фильтр Блума не может ответить сам
+CREATE INDEX IF NOT EXISTS idx_employees_email ON employees (email);
@@ -0,0 +1,111 @@
+package org.javacode.employee_accounting.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.javacode.employee_accounting.model.dto.response.DepartmentResponseDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.javacode.employee_accounting.model.projections.EmployeeProjection;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сравнение форматов ответа на типичных списках: время сериализации, размер тела и размер после gzip.
+ * Запуск: gradle serializationBenchmark [--args="10000 50"] - число элементов и число замеров.
+ */
+public class SerializationBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", Jackson2ObjectMapperBuilder.json().build());
+        formats.put("smile", Jackson2ObjectMapperBuilder.smile().build());
+        formats.put("cbor", Jackson2ObjectMapperBuilder.cbor().build());
+
+        Map<String, List<?>> payloads = new LinkedHashMap<>();
+        payloads.put("EmployeeResponseDto", employees(size));
+        payloads.put("DepartmentResponseDto", departments(size));
+        payloads.put("EmployeeProjection", projections(size));
+
+        System.out.printf("%d elements, %d iterations%n", size, iterations);
+        System.out.printf("%-22s %-6s %12s %12s %12s%n", "payload", "format", "us/op", "bytes", "gzip bytes");
+        for (Map.Entry<String, List<?>> payload : payloads.entrySet()) {
+            for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                ObjectMapper mapper = format.getValue();
+                byte[] body = mapper.writeValueAsBytes(payload.getValue());
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    mapper.writeValueAsBytes(payload.getValue());
+                }
+                long started = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    body = mapper.writeValueAsBytes(payload.getValue());
+                }
+                long micros = (System.nanoTime() - started) / iterations / 1_000;
+                System.out.printf("%-22s %-6s %12d %12d %12d%n",
+                        payload.getKey(), format.getKey(), micros, body.length, gzip(body).length);
+            }
+        }
+    }
+
+    private static List<EmployeeResponseDto> employees(int size) {
+        List<EmployeeResponseDto> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(new EmployeeResponseDto("Firstname" + i, "Lastname" + i, "user" + i,
+                    "position" + i % 50, 1000.0 + i % 1000, new DepartmentResponseDto("department" + i % 100)));
+        }
+        return employees;
+    }
+
+    private static List<DepartmentResponseDto> departments(int size) {
+        List<DepartmentResponseDto> departments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            departments.add(new DepartmentResponseDto("department" + i, (long) i % 500));
+        }
+        return departments;
+    }
+
+    private static List<EmployeeProjection> projections(int size) {
+        List<EmployeeProjection> projections = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            projections.add(new Projection("Firstname" + i + " Lastname" + i, "position" + i % 50,
+                    "department" + i % 100));
+        }
+        return projections;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    // Сериализуется так же, как проекция Spring Data: по геттерам интерфейса
+    private record Projection(String fullName, String position, String departmentName) implements EmployeeProjection {
+
+        @Override
+        public String getFullName() {
+            return fullName;
+        }
+
+        @Override
+        public String getPosition() {
+            return position;
+        }
+
+        @Override
+        public String getDepartmentName() {
+            return departmentName;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package org.javacode.employee_accounting.controller;
 
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
 import org.javacode.employee_accounting.model.entity.Employee;
 import org.javacode.employee_accounting.model.entity.Role;
 import org.javacode.employee_accounting.repository.EmployeeRepository;
 import org.javacode.employee_accounting.security.JwtUtil;
 import org.javacode.employee_accounting.service.DepartmentService;
 import org.javacode.employee_accounting.service.EmployeeService;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
@@ -17,9 +20,11 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,16 +40,18 @@ class AdminControllerTest {
     private final JdbcTemplate jdbcTemplate;
     private final MockMvc mockMvc;
     private final JwtUtil jwtUtil;
+    private final EntityManagerFactory entityManagerFactory;
     private String adminToken;
     private String moderatorToken;
 
-    AdminControllerTest(EmployeeRepository employeeRepository, EmployeeService employeeService, DepartmentService departmentService, JdbcTemplate jdbcTemplate, MockMvc mockMvc, JwtUtil jwtUtil) {
+    AdminControllerTest(EmployeeRepository employeeRepository, EmployeeService employeeService, DepartmentService departmentService, JdbcTemplate jdbcTemplate, MockMvc mockMvc, JwtUtil jwtUtil, EntityManagerFactory entityManagerFactory) {
         this.employeeRepository = employeeRepository;
         this.employeeService = employeeService;
         this.departmentService = departmentService;
         this.jdbcTemplate = jdbcTemplate;
         this.mockMvc = mockMvc;
         this.jwtUtil = jwtUtil;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
 
@@ -89,6 +96,162 @@ class AdminControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void updateUserBlockRevokesIssuedTokens() throws Exception {
+        Employee blocked = Employee.builder()
+                .firstName("blocked")
+                .lastName("blocked")
+                .salary(1000.00)
+                .position("blocked")
+                .email("blocked@gmail.com")
+                .username("blocked123")
+                .password("password6")
+                .role(Role.USER)
+                .isAccountNonLocked(true)
+                .department(departmentService.findOrCreateDepartment("hr"))
+                .build();
+        Long blockedId = employeeRepository.save(blocked).getId();
+        String blockedToken = jwtUtil.generateJwtToken(employeeService.loadUserByUsername("blocked123"));
+
+        mockMvc.perform(get("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + blockedToken))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(put("/api/v1/admin/block/" + blockedId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("false"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().string("false"));
+
+        mockMvc.perform(get("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + blockedToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void updateUsersBlock() throws Exception {
+        List<Employee> clerks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            clerks.add(Employee.builder()
+                    .firstName("clerk" + i)
+                    .lastName("clerk" + i)
+                    .salary(100.00)
+                    .position("clerk")
+                    .email("clerk" + i + "@gmail.com")
+                    .username("clerk" + i)
+                    .password("password" + i)
+                    .isAccountNonLocked(true)
+                    .role(Role.USER)
+                    .department(departmentService.findOrCreateDepartment("hr"))
+                    .build());
+        }
+        employeeRepository.saveAll(clerks);
+        String clerkToken = jwtUtil.generateJwtToken(employeeService.loadUserByUsername("clerk0"));
+
+        mockMvc.perform(get("/api/v1/admin/block/3")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(content().string("true"));
+
+        // Maria123 в hr уже отмечена заблокированной и не считается
+        mockMvc.perform(put("/api/v1/admin/block")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"locked\": true, \"department\": \"hr\"}"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("affected").value(3));
+
+        mockMvc.perform(get("/api/v1/admin/block/3")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(content().string("false"));
+
+        mockMvc.perform(get("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + clerkToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(put("/api/v1/admin/block")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"locked\": false, \"ids\": [3, 4, 4, 100]}"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("affected").value(2));
+
+        mockMvc.perform(get("/api/v1/admin/block/4")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(content().string("true"));
+
+        mockMvc.perform(put("/api/v1/admin/block")
+                        .header("Authorization", "Bearer " + moderatorToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"locked\": false, \"ids\": [5]}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void payrollRun() throws Exception {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            employees.add(Employee.builder()
+                    .firstName("clerk" + i)
+                    .lastName("clerk" + i)
+                    .salary(100.00)
+                    .position("clerk")
+                    .email("clerk" + i + "@gmail.com")
+                    .username("clerk" + i)
+                    .password("password" + i)
+                    .role(Role.USER)
+                    .department(departmentService.findOrCreateDepartment("hr"))
+                    .build());
+        }
+        employeeRepository.saveAll(employees);
+
+        String started = mockMvc.perform(post("/api/v1/admin/payroll?period=2026-10")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("period").value("2026-10"))
+                .andExpect(jsonPath("employees").value(7))
+                .andReturn().getResponse().getContentAsString();
+        Number runId = JsonPath.read(started, "id");
+
+        String status = "RUNNING";
+        for (int attempt = 0; attempt < 100 && status.equals("RUNNING"); attempt++) {
+            Thread.sleep(100);
+            status = JsonPath.read(mockMvc.perform(get("/api/v1/admin/payroll/" + runId)
+                            .header("Authorization", "Bearer " + adminToken))
+                    .andReturn().getResponse().getContentAsString(), "status");
+        }
+
+        // ADMIN 1200 * 1.5, MODERATOR в security 1100 * 1.1, пять USER по 100
+        mockMvc.perform(get("/api/v1/admin/payroll/" + runId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("status").value("COMPLETED"))
+                .andExpect(jsonPath("processed").value(7))
+                .andExpect(jsonPath("progress").value(1.0))
+                .andExpect(jsonPath("totalAmount").value(3510.0));
+
+        mockMvc.perform(get("/api/v1/admin/payroll/" + runId + "/departments")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("length()").value(2))
+                .andExpect(jsonPath("[0].department").value("hr"))
+                .andExpect(jsonPath("[0].headcount").value(6))
+                .andExpect(jsonPath("[0].totalAmount").value(2300.0))
+                .andExpect(jsonPath("[1].department").value("security"))
+                .andExpect(jsonPath("[1].totalAmount").value(1210.0));
+
+        Assertions.assertEquals(7, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM payroll_entries WHERE run_id = ?", Integer.class, runId.longValue()));
+
+        mockMvc.perform(post("/api/v1/admin/payroll?period=2026-10")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/api/v1/admin/payroll?period=2026-10")
+                        .header("Authorization", "Bearer " + moderatorToken))
+                .andExpect(status().isForbidden());
+    }
+
     private void loadTestData() {
         updateData();
 
@@ -122,8 +285,12 @@ class AdminControllerTest {
     private void updateData() {
         jdbcTemplate.update("ALTER TABLE employees ALTER COLUMN id RESTART WITH 1;");
         jdbcTemplate.update("ALTER TABLE departments ALTER COLUMN id RESTART WITH 1;");
+        jdbcTemplate.update("DELETE FROM department_stats;");
         jdbcTemplate.update("DELETE FROM employees;");
         jdbcTemplate.update("DELETE FROM departments;");
+        departmentService.reloadCache();
+        employeeService.clearCache();
+        entityManagerFactory.getCache().evictAll();
     }
 
     private void loadToken() {
@@ -1,6 +1,8 @@
 package org.javacode.employee_accounting.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.javacode.employee_accounting.availability.EmployeeAvailabilityIndex;
 import org.javacode.employee_accounting.model.dto.EmployeeSignInDto;
 import org.javacode.employee_accounting.model.dto.create.DepartmentCreateEditDto;
 import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
@@ -8,6 +10,7 @@ import org.javacode.employee_accounting.model.entity.Employee;
 import org.javacode.employee_accounting.model.entity.Role;
 import org.javacode.employee_accounting.repository.EmployeeRepository;
 import org.javacode.employee_accounting.service.DepartmentService;
+import org.javacode.employee_accounting.service.EmployeeService;
 import org.junit.jupiter.api.*;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -16,7 +19,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -30,13 +35,19 @@ class AuthControllerTest {
     private final EmployeeRepository employeeRepository;
     private final JdbcTemplate jdbcTemplate;
     private final DepartmentService departmentService;
+    private final EmployeeService employeeService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EmployeeAvailabilityIndex employeeAvailabilityIndex;
 
-    AuthControllerTest(MockMvc mockMvc, ObjectMapper objectMapper, EmployeeRepository employeeRepository, JdbcTemplate jdbcTemplate, DepartmentService departmentService) {
+    AuthControllerTest(MockMvc mockMvc, ObjectMapper objectMapper, EmployeeRepository employeeRepository, JdbcTemplate jdbcTemplate, DepartmentService departmentService, EmployeeService employeeService, EntityManagerFactory entityManagerFactory, EmployeeAvailabilityIndex employeeAvailabilityIndex) {
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
         this.employeeRepository = employeeRepository;
         this.jdbcTemplate = jdbcTemplate;
         this.departmentService = departmentService;
+        this.employeeService = employeeService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.employeeAvailabilityIndex = employeeAvailabilityIndex;
     }
 
     @BeforeEach
@@ -82,6 +93,48 @@ class AuthControllerTest {
                 .andExpect(status().isLocked());
     }
 
+    @Test
+    @Order(5)
+    void signInLockIsPersisted() throws Exception {
+        EmployeeSignInDto employeeSignInDto = new EmployeeSignInDto("test123", "wrong password");
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/auth/signin")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(employeeSignInDto)));
+        }
+
+        Employee locked = employeeRepository.findByUsername("test123").orElseThrow();
+        Assertions.assertFalse(locked.isAccountNonLocked());
+        Assertions.assertEquals(5, locked.getFailedLoginAttempts());
+    }
+
+    @Test
+    @Order(4)
+    void signInAfterSignUp() throws Exception {
+        EmployeeCreateEditDto employee = new EmployeeCreateEditDto(
+                "Anna",
+                "Petrova",
+                "anna@gmail.com",
+                "password77",
+                "anna123",
+                "accountant",
+                Role.USER,
+                1000.00,
+                new DepartmentCreateEditDto("accounting")
+        );
+
+        mockMvc.perform(post("/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(post("/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new EmployeeSignInDto("anna123", "password77"))))
+                .andExpect(status().is2xxSuccessful());
+    }
+
     @Test
     @Order(2)
     void refreshToken() throws Exception {
@@ -93,6 +146,52 @@ class AuthControllerTest {
                 .andExpect(status().is2xxSuccessful());
     }
 
+    @Test
+    @Order(6)
+    void availability() throws Exception {
+        mockMvc.perform(get("/auth/availability")
+                        .param("username", "test123")
+                        .param("email", "free@gmail.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").value(false))
+                .andExpect(jsonPath("$.emailAvailable").value(true));
+
+        mockMvc.perform(get("/auth/availability")
+                        .param("email", "test@gmail.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").doesNotExist())
+                .andExpect(jsonPath("$.emailAvailable").value(false));
+
+        EmployeeCreateEditDto employee = new EmployeeCreateEditDto(
+                "Oleg",
+                "Sidorov",
+                "oleg@gmail.com",
+                "password55",
+                "oleg123",
+                "driver",
+                Role.USER,
+                700.00,
+                new DepartmentCreateEditDto("logistics")
+        );
+
+        mockMvc.perform(get("/auth/availability")
+                        .param("username", "oleg123")
+                        .param("email", "oleg@gmail.com"))
+                .andExpect(jsonPath("$.usernameAvailable").value(true))
+                .andExpect(jsonPath("$.emailAvailable").value(true));
+
+        mockMvc.perform(post("/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(get("/auth/availability")
+                        .param("username", "oleg123")
+                        .param("email", "oleg@gmail.com"))
+                .andExpect(jsonPath("$.usernameAvailable").value(false))
+                .andExpect(jsonPath("$.emailAvailable").value(false));
+    }
+
     private void loadTestData() {
         updateData();
 
@@ -110,12 +209,17 @@ class AuthControllerTest {
                 .build();
 
         employeeRepository.save(testEmployee);
+        employeeAvailabilityIndex.rebuild();
     }
 
     private void updateData() {
         jdbcTemplate.update("ALTER TABLE employees ALTER COLUMN id RESTART WITH 1;");
         jdbcTemplate.update("ALTER TABLE departments ALTER COLUMN id RESTART WITH 1;");
+        jdbcTemplate.update("DELETE FROM department_stats;");
         jdbcTemplate.update("DELETE FROM employees;");
         jdbcTemplate.update("DELETE FROM departments;");
+        departmentService.reloadCache();
+        employeeService.clearCache();
+        entityManagerFactory.getCache().evictAll();
     }
 }
\ No newline at end of file
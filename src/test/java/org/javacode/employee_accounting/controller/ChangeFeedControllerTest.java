@@ -0,0 +1,232 @@
+package org.javacode.employee_accounting.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.javacode.employee_accounting.model.entity.Employee;
+import org.javacode.employee_accounting.model.entity.Role;
+import org.javacode.employee_accounting.repository.ChangeEventRepository;
+import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.security.JwtUtil;
+import org.javacode.employee_accounting.service.ChangeFeedService;
+import org.javacode.employee_accounting.service.DepartmentService;
+import org.javacode.employee_accounting.service.EmployeeService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+// Ответ SSE дописывается потоком доставки: печать результата MockMvc перебирала бы заголовки параллельно с ним
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles("test")
+class ChangeFeedControllerTest {
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
+    private final DepartmentService departmentService;
+    private final ChangeFeedService changeFeedService;
+    private final ChangeEventRepository changeEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MockMvc mockMvc;
+    private final JwtUtil jwtUtil;
+    private final EntityManagerFactory entityManagerFactory;
+    private String adminToken;
+    private String moderatorToken;
+    private String userToken;
+
+    ChangeFeedControllerTest(EmployeeRepository employeeRepository, EmployeeService employeeService, DepartmentService departmentService, ChangeFeedService changeFeedService, ChangeEventRepository changeEventRepository, TransactionTemplate transactionTemplate, JdbcTemplate jdbcTemplate, MockMvc mockMvc, JwtUtil jwtUtil, EntityManagerFactory entityManagerFactory) {
+        this.employeeRepository = employeeRepository;
+        this.employeeService = employeeService;
+        this.departmentService = departmentService;
+        this.changeFeedService = changeFeedService;
+        this.changeEventRepository = changeEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.mockMvc = mockMvc;
+        this.jwtUtil = jwtUtil;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @BeforeEach
+    void setUp() {
+        loadTestData();
+        loadToken();
+    }
+
+    @Test
+    void streamsCommittedChanges() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/v1/changes")
+                        .header("Authorization", "Bearer " + moderatorToken)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+
+        mockMvc.perform(post("/api/v1/employee")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "firstname": "Olga",
+                                    "lastname": "Smirnova",
+                                    "email": "olga@gmail.com",
+                                    "password": "password7",
+                                    "username": "Olga123",
+                                    "position": "accountant",
+                                    "role": "USER",
+                                    "salary": 1300.00,
+                                    "department": {"name": "finance"}
+                                }"""))
+                .andExpect(status().isCreated());
+
+        // Событие публикует relay, разбуженный после фиксации, без ожидания опроса
+        String content = await(stream, body -> body.contains("Olga123"));
+        Assertions.assertTrue(content.contains("event:changes"));
+        Assertions.assertTrue(content.contains("\"entity\":\"EMPLOYEE\""));
+        Assertions.assertTrue(content.contains("\"operation\":\"CREATED\""));
+        Assertions.assertTrue(content.contains("\"username\":\"Olga123\""));
+        // Отдел finance создан попутно с сотрудником и тоже попадает в ленту
+        Assertions.assertTrue(content.contains("\"entity\":\"DEPARTMENT\",\"entityId\":4,\"operation\":\"CREATED\""));
+    }
+
+    @Test
+    void resumesFromLastEventId() throws Exception {
+        changeFeedService.relay();
+        long before = lastSequence();
+        employeeService.delete(1L);
+        changeFeedService.relay();
+        long afterFirst = lastSequence();
+        employeeService.delete(2L);
+        changeFeedService.relay();
+
+        MockHttpServletResponse replay = mockMvc.perform(get("/api/v1/changes")
+                        .header("Authorization", "Bearer " + moderatorToken)
+                        .header("Last-Event-ID", before))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        String content = await(replay, body -> body.contains("\"entityId\":2"));
+        Assertions.assertTrue(content.contains("\"entityId\":1,\"operation\":\"DELETED\",\"data\":null"));
+
+        MockHttpServletResponse resumed = mockMvc.perform(get("/api/v1/changes")
+                        .header("Authorization", "Bearer " + moderatorToken)
+                        .header("Last-Event-ID", afterFirst))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        content = await(resumed, body -> body.contains("\"entityId\":2"));
+        Assertions.assertFalse(content.contains("\"entityId\":1,"));
+    }
+
+    @Test
+    void rejectsPurgedLastEventId() throws Exception {
+        changeFeedService.relay();
+        long before = lastSequence();
+        employeeService.delete(3L);
+        changeFeedService.relay();
+        transactionTemplate.executeWithoutResult(status ->
+                changeEventRepository.deletePublishedBefore(Instant.now().plusSeconds(60)));
+
+        mockMvc.perform(get("/api/v1/changes")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("Last-Event-ID", before))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void subscribeWithUserToken() throws Exception {
+        mockMvc.perform(get("/api/v1/changes")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private long lastSequence() {
+        return changeEventRepository.findLastSequence();
+    }
+
+    private static String await(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = response.getContentAsString();
+        while (!condition.test(content)) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "Change feed did not deliver: " + content);
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        return content;
+    }
+
+    private void loadTestData() {
+        updateData();
+
+        Employee programmer = Employee.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .salary(1000.00)
+                .position("programmer")
+                .email("ivan@gmail.com")
+                .username("Ivan123")
+                .password("password1")
+                .role(Role.USER)
+                .department(departmentService.findOrCreateDepartment("it"))
+                .build();
+
+        Employee hr_officer = Employee.builder()
+                .firstName("Maria")
+                .lastName("Ivanova")
+                .salary(1200.00)
+                .position("hr officer")
+                .email("maria@gmail.com")
+                .username("Maria123")
+                .password("password4")
+                .role(Role.ADMIN)
+                .department(departmentService.findOrCreateDepartment("hr"))
+                .build();
+
+        Employee security_guard = Employee.builder()
+                .firstName("Petr")
+                .lastName("Petrov")
+                .salary(1100.00)
+                .position("security guard")
+                .email("petr@gmail.com")
+                .username("Petr123")
+                .password("password5")
+                .role(Role.MODERATOR)
+                .department(departmentService.findOrCreateDepartment("security"))
+                .build();
+
+        employeeRepository.saveAll(List.of(programmer, hr_officer, security_guard));
+    }
+
+    private void updateData() {
+        jdbcTemplate.update("ALTER TABLE employees ALTER COLUMN id RESTART WITH 1;");
+        jdbcTemplate.update("ALTER TABLE departments ALTER COLUMN id RESTART WITH 1;");
+        jdbcTemplate.update("DELETE FROM department_stats;");
+        jdbcTemplate.update("DELETE FROM employees;");
+        jdbcTemplate.update("DELETE FROM departments;");
+        departmentService.reloadCache();
+        employeeService.clearCache();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private void loadToken() {
+        this.userToken = jwtUtil.generateJwtToken(employeeService.loadUserByUsername("Ivan123"));
+        this.adminToken = jwtUtil.generateJwtToken(employeeService.loadUserByUsername("Maria123"));
+        this.moderatorToken = jwtUtil.generateJwtToken(employeeService.loadUserByUsername("Petr123"));
+    }
+}
@@ -1,14 +1,19 @@
 package org.javacode.employee_accounting.controller;
 
+import jakarta.persistence.EntityManagerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.javacode.employee_accounting.model.dto.create.DepartmentCreateEditDto;
+import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
 import org.javacode.employee_accounting.model.entity.Department;
 import org.javacode.employee_accounting.model.entity.Employee;
 import org.javacode.employee_accounting.model.entity.Role;
 import org.javacode.employee_accounting.repository.DepartmentRepository;
 import org.javacode.employee_accounting.repository.EmployeeRepository;
 import org.javacode.employee_accounting.security.JwtUtil;
+import org.javacode.employee_accounting.service.DepartmentPayrollService;
 import org.javacode.employee_accounting.service.DepartmentService;
+import org.javacode.employee_accounting.service.DepartmentStatsService;
 import org.javacode.employee_accounting.service.EmployeeService;
 import org.junit.jupiter.api.*;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -18,10 +23,17 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,24 +46,30 @@ class DepartmentControllerTest {
     private final DepartmentRepository departmentRepository;
     private final EmployeeRepository employeeRepository;
     private final DepartmentService departmentService;
+    private final DepartmentPayrollService departmentPayrollService;
+    private final DepartmentStatsService departmentStatsService;
     private final EmployeeService employeeService;
     private final JdbcTemplate jdbcTemplate;
     private final JwtUtil jwtUtil;
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
     private String adminToken;
     private String userToken;
     private String moderatorToken;
 
-    DepartmentControllerTest(DepartmentRepository departmentRepository, EmployeeRepository employeeRepository, DepartmentService departmentService, EmployeeService employeeService, JdbcTemplate jdbcTemplate, JwtUtil jwtUtil, MockMvc mockMvc, ObjectMapper objectMapper) {
+    DepartmentControllerTest(DepartmentRepository departmentRepository, EmployeeRepository employeeRepository, DepartmentService departmentService, DepartmentPayrollService departmentPayrollService, DepartmentStatsService departmentStatsService, EmployeeService employeeService, JdbcTemplate jdbcTemplate, JwtUtil jwtUtil, MockMvc mockMvc, ObjectMapper objectMapper, EntityManagerFactory entityManagerFactory) {
         this.departmentRepository = departmentRepository;
         this.employeeRepository = employeeRepository;
         this.departmentService = departmentService;
+        this.departmentPayrollService = departmentPayrollService;
+        this.departmentStatsService = departmentStatsService;
         this.employeeService = employeeService;
         this.jdbcTemplate = jdbcTemplate;
         this.jwtUtil = jwtUtil;
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @BeforeEach
@@ -87,6 +105,143 @@ class DepartmentControllerTest {
                 .andExpect(jsonPath("content[1].name").value("sales"));
     }
 
+    @Test
+    @Order(4)
+    void getAllByKeyset() throws Exception {
+        String firstPage = mockMvc.perform(get("/api/v1/department/all?cursor=&size=3&sort=name,asc")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("content.length()").value(3))
+                .andExpect(jsonPath("content[0].name").value("cleaning"))
+                .andExpect(jsonPath("content[2].name").value("restaurant"))
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = JsonPath.read(firstPage, "nextCursor");
+
+        mockMvc.perform(get("/api/v1/department/all?size=3&cursor=" + cursor)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("content.length()").value(3))
+                .andExpect(jsonPath("content[0].name").value("sales"))
+                .andExpect(jsonPath("content[2].name").value("testDepartment"))
+                .andExpect(jsonPath("hasNext").value(false));
+    }
+
+    @Test
+    void getPayroll() throws Exception {
+        Department hr = departmentService.findOrCreateDepartment("hr");
+        List<Employee> employees = new ArrayList<>();
+        double[] salaries = {300, 100, 400, 200};
+        Role[] roles = {Role.USER, Role.USER, Role.MODERATOR, Role.USER};
+        for (int i = 0; i < salaries.length; i++) {
+            employees.add(Employee.builder()
+                    .firstName("hr" + i)
+                    .lastName("hr" + i)
+                    .salary(salaries[i])
+                    .position("hr")
+                    .email("hr" + i + "@gmail.com")
+                    .username("hr" + i)
+                    .password("test0123")
+                    .role(roles[i])
+                    .department(hr)
+                    .build());
+        }
+        employeeRepository.saveAll(employees);
+
+        mockMvc.perform(get("/api/v1/department/payroll?page=0&size=2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("totalElements").value(6))
+                .andExpect(jsonPath("content[0].department").value("cleaning"))
+                .andExpect(jsonPath("content[0].headcount").value(0))
+                .andExpect(jsonPath("content[0].medianSalary").isEmpty())
+                .andExpect(jsonPath("content[1].department").value("hr"))
+                .andExpect(jsonPath("content[1].headcount").value(4))
+                .andExpect(jsonPath("content[1].totalPayroll").value(1000.0))
+                .andExpect(jsonPath("content[1].averageSalary").value(250.0))
+                .andExpect(jsonPath("content[1].medianSalary").value(250.0))
+                .andExpect(jsonPath("content[1].p90Salary").value(370.0))
+                .andExpect(jsonPath("content[1].roles.length()").value(2))
+                .andExpect(jsonPath("content[1].roles[0].role").value("USER"))
+                .andExpect(jsonPath("content[1].roles[0].headcount").value(3))
+                .andExpect(jsonPath("content[1].roles[0].medianSalary").value(200.0))
+                .andExpect(jsonPath("content[1].roles[0].p90Salary").value(280.0))
+                .andExpect(jsonPath("content[1].roles[1].role").value("MODERATOR"))
+                .andExpect(jsonPath("content[1].roles[1].p90Salary").value(400.0));
+
+        mockMvc.perform(get("/api/v1/department/payroll")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void statsFollowEmployeeWrites() throws Exception {
+        departmentStatsService.reconcile();
+        EmployeeCreateEditDto employee = new EmployeeCreateEditDto("hr", "hr", "hr@gmail.com", "test0123",
+                "hrUser", "hr", Role.USER, 500.0, new DepartmentCreateEditDto("hr"));
+
+        employeeService.create(employee);
+        employeeService.create(new EmployeeCreateEditDto("hr2", "hr2", "hr2@gmail.com", "test0123",
+                "hrUser2", "hr", Role.USER, 700.0, new DepartmentCreateEditDto("hr")));
+        mockMvc.perform(get("/api/v1/department/3/stats")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("department").value("hr"))
+                .andExpect(jsonPath("headcount").value(2))
+                .andExpect(jsonPath("totalPayroll").value(1200.0))
+                .andExpect(jsonPath("averageSalary").value(600.0));
+
+        Long id = employeeRepository.findByUsername("hrUser").orElseThrow().getId();
+        employeeService.update(id, new EmployeeCreateEditDto("hr", "hr", "hr@gmail.com", "test0123",
+                "hrUser", "sales", Role.USER, 800.0, new DepartmentCreateEditDto("sales")), null);
+        mockMvc.perform(get("/api/v1/department/3")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("headcount").value(1));
+        mockMvc.perform(get("/api/v1/department/4/stats")
+                        .header("Authorization", "Bearer " + moderatorToken))
+                .andExpect(jsonPath("headcount").value(1))
+                .andExpect(jsonPath("totalPayroll").value(800.0));
+
+        employeeService.delete(id);
+        mockMvc.perform(get("/api/v1/department/all?page=0&size=10&sort=id,asc")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("content[0].headcount").value(3))
+                .andExpect(jsonPath("content[1].headcount").value(0))
+                .andExpect(jsonPath("content[2].headcount").value(1))
+                .andExpect(jsonPath("content[3].headcount").value(0));
+
+        Assertions.assertEquals(0, departmentStatsService.reconcile());
+
+        mockMvc.perform(get("/api/v1/department/2/stats")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void reconcileRepairsDrift() throws Exception {
+        // Сотрудники из loadEmployees записаны в обход сервиса, статистика о них не знает
+        mockMvc.perform(get("/api/v1/department/1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(jsonPath("headcount").value(0));
+
+        Assertions.assertEquals(1, departmentStatsService.reconcile());
+
+        mockMvc.perform(get("/api/v1/department/1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("name").value("testDepartment"))
+                .andExpect(jsonPath("headcount").value(3));
+        mockMvc.perform(get("/api/v1/department/1/stats")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(jsonPath("totalPayroll").value(3000.0));
+
+        jdbcTemplate.update("UPDATE department_stats SET total_salary = 10 WHERE department_id = 1");
+        Assertions.assertEquals(1, departmentStatsService.reconcile());
+        Assertions.assertEquals(0, departmentStatsService.reconcile());
+    }
+
     @Test
     void create() throws Exception {
         DepartmentCreateEditDto logistics = new DepartmentCreateEditDto("logistics");
@@ -99,6 +254,26 @@ class DepartmentControllerTest {
                 .andExpect(jsonPath("name").value("logistics"));
     }
 
+    @Test
+    void findOrCreateDepartmentConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Department>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> departmentService.findOrCreateDepartment("logistics")));
+            }
+            Set<Integer> ids = new HashSet<>();
+            for (Future<Department> future : futures) {
+                ids.add(future.get().getId());
+            }
+            Assertions.assertEquals(1, ids.size());
+            Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM departments WHERE name = 'logistics'", Integer.class));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     void update() throws Exception {
         DepartmentCreateEditDto cafe = new DepartmentCreateEditDto("cafe");
@@ -110,6 +285,102 @@ class DepartmentControllerTest {
                 .andExpect(jsonPath("name").value("cafe"));
     }
 
+    @Test
+    void employeeReflectsDepartmentRename() throws Exception {
+        // Прогрев кэша ответов сотрудника
+        String entityTag = mockMvc.perform(get("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(jsonPath("department.name").value("testDepartment"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(put("/api/v1/department/1")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DepartmentCreateEditDto("renamed"))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("If-None-Match", entityTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("department.name").value("renamed"));
+    }
+
+    @Test
+    void conditionalRequests() throws Exception {
+        String entityTag = mockMvc.perform(get("/api/v1/department/2")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/department/2")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("If-None-Match", entityTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/v1/department/2")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", entityTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DepartmentCreateEditDto("cafe"))))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+
+        mockMvc.perform(put("/api/v1/department/2")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", entityTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DepartmentCreateEditDto("bistro"))))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/v1/department/2")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("If-None-Match", entityTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("name").value("cafe"));
+    }
+
+    @Test
+    void sync() throws Exception {
+        String snapshot = mockMvc.perform(get("/api/v1/department/sync")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("upserts.length()").value(6))
+                .andExpect(jsonPath("hasNext").value(false))
+                .andReturn().getResponse().getContentAsString();
+        String watermark = JsonPath.read(snapshot, "$.watermark");
+
+        Thread.sleep(5);
+        mockMvc.perform(put("/api/v1/department/2")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DepartmentCreateEditDto("kitchen"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/department/6")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        // Страница из одной записи: переименование, затем надгробие по курсору
+        String first = mockMvc.perform(get("/api/v1/department/sync")
+                        .header("Authorization", "Bearer " + userToken)
+                        .param("since", watermark)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("upserts[0].name").value("kitchen"))
+                .andExpect(jsonPath("hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/v1/department/sync")
+                        .header("Authorization", "Bearer " + userToken)
+                        .param("cursor", JsonPath.<String>read(first, "$.nextCursor"))
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("upserts").isEmpty())
+                .andExpect(jsonPath("deleted").value(6))
+                .andExpect(jsonPath("hasNext").value(false))
+                .andExpect(jsonPath("watermark").isNotEmpty());
+    }
+
     @Test
     void updateWithUserToken() throws Exception {
         DepartmentCreateEditDto cafe = new DepartmentCreateEditDto("cafe");
@@ -177,8 +448,14 @@ class DepartmentControllerTest {
     private void updateData() {
         jdbcTemplate.update("ALTER TABLE employees ALTER COLUMN id RESTART WITH 1;");
         jdbcTemplate.update("ALTER TABLE departments ALTER COLUMN id RESTART WITH 1;");
+        jdbcTemplate.update("DELETE FROM department_stats;");
         jdbcTemplate.update("DELETE FROM employees;");
         jdbcTemplate.update("DELETE FROM departments;");
+        jdbcTemplate.update("DELETE FROM tombstones;");
+        departmentService.reloadCache();
+        departmentPayrollService.clearCache();
+        employeeService.clearCache();
+        entityManagerFactory.getCache().evictAll();
     }
 
     private void loadTokens() {
@@ -1,27 +1,50 @@
 package org.javacode.employee_accounting.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.javacode.employee_accounting.autocomplete.EmployeeAutocompleteIndex;
+import org.javacode.employee_accounting.model.dto.EmployeeFilterDto;
 import org.javacode.employee_accounting.model.dto.create.DepartmentCreateEditDto;
 import org.javacode.employee_accounting.model.dto.create.EmployeeCreateEditDto;
+import org.javacode.employee_accounting.model.dto.response.EmployeeResponseDto;
+import org.javacode.employee_accounting.model.entity.Department;
 import org.javacode.employee_accounting.model.entity.Employee;
 import org.javacode.employee_accounting.model.entity.Role;
 import org.javacode.employee_accounting.repository.EmployeeRepository;
+import org.javacode.employee_accounting.repository.EmployeeSpecifications;
 import org.javacode.employee_accounting.security.JwtUtil;
 import org.javacode.employee_accounting.service.DepartmentService;
 import org.javacode.employee_accounting.service.EmployeeService;
+import org.javacode.employee_accounting.support.SqlRecorder;
 import org.junit.jupiter.api.*;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -36,11 +59,14 @@ class EmployeeControllerTest {
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
     private final JwtUtil jwtUtil;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EmployeeAutocompleteIndex employeeAutocompleteIndex;
+    private final MeterRegistry meterRegistry;
     private String adminToken;
     private String userToken;
     private String moderatorToken;
 
-    EmployeeControllerTest(EmployeeRepository employeeRepository, EmployeeService employeeService, DepartmentService departmentService, JdbcTemplate jdbcTemplate, MockMvc mockMvc, ObjectMapper objectMapper, JwtUtil jwtUtil) {
+    EmployeeControllerTest(EmployeeRepository employeeRepository, EmployeeService employeeService, DepartmentService departmentService, JdbcTemplate jdbcTemplate, MockMvc mockMvc, ObjectMapper objectMapper, JwtUtil jwtUtil, EntityManagerFactory entityManagerFactory, EmployeeAutocompleteIndex employeeAutocompleteIndex, MeterRegistry meterRegistry) {
         this.employeeRepository = employeeRepository;
         this.employeeService = employeeService;
         this.departmentService = departmentService;
@@ -48,12 +74,16 @@ class EmployeeControllerTest {
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
         this.jwtUtil = jwtUtil;
+        this.entityManagerFactory = entityManagerFactory;
+        this.employeeAutocompleteIndex = employeeAutocompleteIndex;
+        this.meterRegistry = meterRegistry;
     }
 
     @BeforeEach
     void setUp() {
         loadTestData();
         loadToken();
+        SqlRecorder.clear();
     }
 
     @Test
@@ -83,6 +113,24 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("[4].departmentName").value("security"));
     }
 
+    @Test
+    void streamAllEmployeeProjection() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/employee/all/employees_projection/stream")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(5, lines.length);
+        Assertions.assertEquals("Ivan Ivanov", JsonPath.read(lines[0], "fullName"));
+        Assertions.assertEquals("security", JsonPath.read(lines[4], "departmentName"));
+    }
+
     @Test
     @Order(3)
     void getAll() throws Exception {
@@ -95,6 +143,221 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("content[1].firstname").value("Maria"));
     }
 
+    @Test
+    void getAllWithFilter() throws Exception {
+        mockMvc.perform(get("/api/v1/employee/all?department=cafe&minSalary=1050&sort=id,asc")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("totalElements").value(1))
+                .andExpect(jsonPath("content[0].username").value("Semen123"))
+                .andExpect(jsonPath("content[0].department.name").value("cafe"));
+
+        mockMvc.perform(get("/api/v1/employee/all?role=ADMIN&position=salesman")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("totalElements").value(1))
+                .andExpect(jsonPath("content[0].lastname").value("Semenov"));
+    }
+
+    // Каждая из 31 комбинации фильтров на 20 000 строк должна читать employees по индексу
+    @Test
+    void filterQueriesAvoidTableScan() {
+        List<Department> departments = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            departments.add(departmentService.findOrCreateDepartment("department" + i));
+        }
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .salary(1000.0 + i % 10_000)
+                    .position("position" + i % 50)
+                    .email("seed" + i + "@gmail.com")
+                    .username("seed" + i)
+                    .password("password")
+                    .role(Role.values()[i % Role.values().length])
+                    .department(departments.get(i % departments.size()))
+                    .build());
+        }
+        employeeRepository.insertAll(employees);
+        jdbcTemplate.execute("ANALYZE");
+
+        for (int mask = 1; mask < 32; mask++) {
+            EmployeeFilterDto filter = new EmployeeFilterDto(
+                    (mask & 1) != 0 ? "department3" : null,
+                    (mask & 2) != 0 ? Role.MODERATOR : null,
+                    (mask & 4) != 0 ? "position7" : null,
+                    (mask & 8) != 0 ? 5000.0 : null,
+                    (mask & 16) != 0 ? 5100.0 : null);
+            SqlRecorder.clear();
+            employeeRepository.findAll(EmployeeSpecifications.matching(filter), PageRequest.of(0, 20));
+
+            String sql = SqlRecorder.statements().stream()
+                    .filter(statement -> !statement.contains("count("))
+                    .findFirst()
+                    .orElseThrow();
+            List<Object> parameters = new ArrayList<>();
+            if (filter.department() != null) {
+                parameters.add(filter.department());
+            }
+            if (filter.role() != null) {
+                parameters.add(filter.role().name());
+            }
+            if (filter.position() != null) {
+                parameters.add(filter.position());
+            }
+            if (filter.minSalary() != null) {
+                parameters.add(filter.minSalary());
+            }
+            if (filter.maxSalary() != null) {
+                parameters.add(filter.maxSalary());
+            }
+            parameters.add(0);
+            parameters.add(20);
+
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters.toArray());
+            Assertions.assertFalse(plan.contains("EMPLOYEES.tableScan"), filter + "\n" + plan);
+        }
+    }
+
+    @Test
+    @Order(4)
+    void getAllByKeyset() throws Exception {
+        String firstPage = mockMvc.perform(get("/api/v1/employee/all?cursor=&size=2&sort=lastName,asc")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("content.length()").value(2))
+                .andExpect(jsonPath("content[0].firstname").value("Ivan"))
+                .andExpect(jsonPath("content[1].firstname").value("Semen"))
+                .andExpect(jsonPath("hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = JsonPath.read(firstPage, "nextCursor");
+
+        mockMvc.perform(get("/api/v1/employee/all?size=2&cursor=" + cursor)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("content.length()").value(2))
+                .andExpect(jsonPath("content[0].lastname").value("Ivanova"))
+                .andExpect(jsonPath("content[1].lastname").value("Petrov"));
+    }
+
+    @Test
+    void getAllByKeysetWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/employee/all?cursor=broken")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+
+        List<String> payloads = List.of(
+                "{\"s\":[\"lastName,sideways\"],\"k\":{\"lastName\":\"Ivanov\",\"id\":1}}",
+                "{\"s\":[\"lastName,ASC\"],\"k\":{\"id\":1}}",
+                "{\"s\":[\"lastName,ASC\"],\"k\":{\"lastName\":\"Ivanov\",\"id\":\"one\"}}");
+        for (String payload : payloads) {
+            String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes());
+            mockMvc.perform(get("/api/v1/employee/all?cursor=" + cursor)
+                            .header("Authorization", "Bearer " + adminToken))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void search() throws Exception {
+        mockMvc.perform(get("/api/v1/employee/search?q=IVANOV&size=1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("content.length()").value(1))
+                .andExpect(jsonPath("content[0].username").value("Ivan123"))
+                .andExpect(jsonPath("totalElements").value(3));
+
+        mockMvc.perform(get("/api/v1/employee/search?q=semen sales")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("content.length()").value(1))
+                .andExpect(jsonPath("content[0].position").value("salesman"));
+
+        mockMvc.perform(get("/api/v1/employee/search?q=%25")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("totalElements").value(0));
+    }
+
+    @Test
+    void autocomplete() throws Exception {
+        employeeAutocompleteIndex.rebuild();
+
+        mockMvc.perform(get("/api/v1/employee/autocomplete?prefix=IV&limit=2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("length()").value(2))
+                .andExpect(jsonPath("[0].text").value("Ivanov"))
+                .andExpect(jsonPath("[0].score").value(2.0))
+                .andExpect(jsonPath("[0].fields[0]").value("LAST_NAME"));
+
+        mockMvc.perform(delete("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/employee/autocomplete?prefix=ivan")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("length()").value(2))
+                .andExpect(jsonPath("[0].score").value(1.0));
+    }
+
+    @Test
+    void readEndpointsStatementCount() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Прогрев: индекс версий токенов загружается при первом запросе пользователя
+        mockMvc.perform(get("/api/v1/employee/1")
+                .header("Authorization", "Bearer " + adminToken));
+
+        // Сотрудник и отдел уже в кэше второго уровня
+        assertStatementCount(statistics, get("/api/v1/employee/1"), 0);
+        // Страница, count и счётчик изменений для ETag
+        assertStatementCount(statistics, get("/api/v1/employee/all?page=0&size=2&sort=id,asc"), 3);
+        // Страница и count из кэша запросов
+        assertStatementCount(statistics, get("/api/v1/employee/all?page=0&size=2&sort=id,asc"), 0);
+        assertStatementCount(statistics, get("/api/v1/employee/all?cursor=&size=2&sort=id,asc"), 1);
+        assertStatementCount(statistics, get("/api/v1/employee/all/employees_projection"), 1);
+
+        // Метрики регионов не зависят от статистики Hibernate
+        Assertions.assertTrue(meterRegistry.get("cache.gets")
+                .tags("region", "employees", "result", "hit")
+                .functionCounter().count() > 0);
+    }
+
+    @Test
+    void findByUsernameLoadsColdKeyOnce() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Optional<EmployeeResponseDto>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return employeeService.findByUsername("Semen321");
+                }));
+            }
+            start.countDown();
+            for (Future<Optional<EmployeeResponseDto>> future : futures) {
+                Assertions.assertEquals("salesman", future.get().orElseThrow().position());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private void assertStatementCount(Statistics statistics, MockHttpServletRequestBuilder request, long expected) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request.header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful());
+        Assertions.assertEquals(expected, statistics.getPrepareStatementCount(), request.toString());
+    }
+
     @Test
     void create() throws Exception {
         EmployeeCreateEditDto employee = new EmployeeCreateEditDto(
@@ -121,6 +384,144 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("salary").value(900.00));
     }
 
+    @Test
+    void createAll() throws Exception {
+        List<EmployeeCreateEditDto> employees = List.of(
+                new EmployeeCreateEditDto("Oleg", "Olegov", "oleg@gmail.com", "password11",
+                        "oleg123", "driver", Role.USER, 800.00, new DepartmentCreateEditDto("logistics")),
+                new EmployeeCreateEditDto("Ivan", "Ivanov", "ivan2@gmail.com", "password12",
+                        "Ivan123", "cook", Role.USER, 800.00, new DepartmentCreateEditDto("cafe")),
+                new EmployeeCreateEditDto("Olga", "Olegova", "olga@gmail.com", "short",
+                        "olga123", "driver", Role.USER, 800.00, new DepartmentCreateEditDto("logistics")),
+                new EmployeeCreateEditDto("Pavel", "Pavlov", "pavel@gmail.com", "password13",
+                        "pavel123", "loader", Role.USER, 700.00, new DepartmentCreateEditDto("logistics"))
+        );
+
+        mockMvc.perform(post("/api/v1/employee/bulk")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employees)))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("length()").value(4))
+                .andExpect(jsonPath("[0].status").value(201))
+                .andExpect(jsonPath("[0].employee.department.name").value("logistics"))
+                .andExpect(jsonPath("[1].status").value(409))
+                .andExpect(jsonPath("[2].status").value(400))
+                .andExpect(jsonPath("[3].status").value(201));
+
+        mockMvc.perform(get("/api/v1/employee/7")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("username").value("pavel123"));
+    }
+
+    @Test
+    void createAllOverLimit() throws Exception {
+        List<EmployeeCreateEditDto> employees = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            employees.add(new EmployeeCreateEditDto("Oleg", "Olegov", "oleg" + i + "@gmail.com", "password11",
+                    "oleg" + i, "driver", Role.USER, 800.00, new DepartmentCreateEditDto("logistics")));
+        }
+
+        mockMvc.perform(post("/api/v1/employee/bulk")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employees)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importCsv() throws Exception {
+        String csv = """
+                firstname,lastname,email,password,username,position,role,salary,department
+                Oleg,Olegov,oleg@gmail.com,password11,oleg123,driver,USER,800.0,logistics
+                Ivan,Ivanov,ivan2@gmail.com,password12,Ivan123,cook,USER,800.0,cafe
+                Olga,Olegova,olga@gmail.com,password13,olga123,driver,CEO,800.0,logistics
+                Pavel,Pavlov,pavel@gmail.com,password14,pavel123,loader,USER,not a number,logistics
+                """;
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv", csv.getBytes());
+
+        MvcResult result = mockMvc.perform(multipart("/api/v1/employee/import")
+                        .file(file)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String rejects = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().string("X-Imported-Rows", "1"))
+                .andExpect(header().string("X-Rejected-Rows", "3"))
+                .andReturn().getResponse().getContentAsString();
+
+        Assertions.assertEquals(4, rejects.split("\r?\n").length);
+        Assertions.assertTrue(employeeRepository.findByUsername("oleg123").isPresent());
+    }
+
+    @Test
+    void export() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/employee/export?department=cafe&minSalary=1050")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\r?\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals("firstname,lastname,username,position,salary,department", lines[0]);
+        Assertions.assertTrue(lines[1].endsWith(",1100.0,cafe"));
+
+        result = mockMvc.perform(get("/api/v1/employee/export?format=XLSX")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] xlsx = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"employees.xlsx\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // XLSX - zip-архив
+        Assertions.assertEquals('P', xlsx[0]);
+        Assertions.assertEquals('K', xlsx[1]);
+    }
+
+    @Test
+    void binaryContentNegotiation() throws Exception {
+        byte[] json = mockMvc.perform(get("/api/v1/employee/all/employees_projection")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] smile = mockMvc.perform(get("/api/v1/employee/all/employees_projection")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] cbor = mockMvc.perform(get("/api/v1/employee/all/employees_projection")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Assertions.assertEquals(objectMapper.readTree(json), new ObjectMapper(new SmileFactory()).readTree(smile));
+        Assertions.assertEquals(objectMapper.readTree(json), new ObjectMapper(new CBORFactory()).readTree(cbor));
+        Assertions.assertTrue(smile.length < json.length);
+
+        mockMvc.perform(get("/api/v1/employee/all?page=0&size=2")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"));
+    }
+
     @Test
     void update() throws Exception {
         EmployeeCreateEditDto employee = new EmployeeCreateEditDto(
@@ -148,6 +549,178 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("department.name").value("cafe"));
     }
 
+    @Test
+    void conditionalRequests() throws Exception {
+        String entityTag = mockMvc.perform(get("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        String collectionTag = mockMvc.perform(get("/api/v1/employee/all?page=0&size=2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        Assertions.assertTrue(collectionTag.startsWith("W/"));
+
+        mockMvc.perform(get("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", entityTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/v1/employee/all?page=0&size=2")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", collectionTag))
+                .andExpect(status().isNotModified());
+
+        EmployeeCreateEditDto employee = new EmployeeCreateEditDto(
+                "Ivan",
+                "Ivanov",
+                "ivan@gmail.com",
+                "password123",
+                "Ivan123",
+                "chef",
+                Role.ADMIN,
+                2000.00,
+                new DepartmentCreateEditDto("cafe")
+        );
+        mockMvc.perform(put("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", "\"999\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isPreconditionFailed());
+
+        String updatedTag = mockMvc.perform(put("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", entityTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        Assertions.assertNotEquals(entityTag, updatedTag);
+
+        // Повтор с устаревшим ETag не перезаписывает чужое изменение
+        mockMvc.perform(put("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", entityTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", entityTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", updatedTag))
+                .andExpect(jsonPath("position").value("chef"));
+        mockMvc.perform(get("/api/v1/employee/all?page=0&size=2")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", collectionTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getByIdAfterUpdateAndDelete() throws Exception {
+        // Прогрев кэша второго уровня
+        mockMvc.perform(get("/api/v1/employee/2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(jsonPath("salary").value(1100.00));
+
+        EmployeeCreateEditDto employee = new EmployeeCreateEditDto(
+                "Semen",
+                "Ivanov",
+                "seemen@gmail.com",
+                "password123",
+                "Semen123",
+                "chef",
+                Role.USER,
+                1500.00,
+                new DepartmentCreateEditDto("restaurant")
+        );
+        mockMvc.perform(put("/api/v1/employee/2")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(get("/api/v1/employee/2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(jsonPath("salary").value(1500.00))
+                .andExpect(jsonPath("department.name").value("restaurant"));
+
+        mockMvc.perform(delete("/api/v1/employee/2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/employee/2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void sync() throws Exception {
+        // Полный снимок постранично
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        String watermark = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/v1/employee/sync")
+                    .header("Authorization", "Bearer " + userToken)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("deleted").isEmpty())
+                    .andReturn().getResponse().getContentAsString();
+            ids.addAll(JsonPath.read(body, "$.upserts[*].id"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+            watermark = JsonPath.read(body, "$.watermark");
+        } while (cursor != null);
+        Assertions.assertEquals(List.of(1, 2, 3, 4, 5), ids.stream().sorted().toList());
+        Assertions.assertNotNull(watermark);
+
+        Thread.sleep(5);
+        EmployeeCreateEditDto employee = new EmployeeCreateEditDto(
+                "Ivan",
+                "Ivanov",
+                "ivan@gmail.com",
+                "password123",
+                "Ivan123",
+                "chef",
+                Role.USER,
+                1300.00,
+                new DepartmentCreateEditDto("cafe")
+        );
+        mockMvc.perform(put("/api/v1/employee/1")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/employee/3")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        // Дельта с водяного знака: только изменённый сотрудник и надгробие удалённого
+        mockMvc.perform(get("/api/v1/employee/sync")
+                        .header("Authorization", "Bearer " + userToken)
+                        .param("since", watermark))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("upserts.length()").value(1))
+                .andExpect(jsonPath("upserts[0].id").value(1))
+                .andExpect(jsonPath("upserts[0].position").value("chef"))
+                .andExpect(jsonPath("deleted").value(3))
+                .andExpect(jsonPath("hasNext").value(false))
+                .andExpect(jsonPath("watermark").isNotEmpty());
+
+        // Надгробия старше tombstone-ttl удалены, клиенту нужен полный снимок
+        mockMvc.perform(get("/api/v1/employee/sync")
+                        .header("Authorization", "Bearer " + userToken)
+                        .param("since", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isGone());
+    }
+
     @Test
     void updateWithUserToken() throws Exception {
         EmployeeCreateEditDto employee = new EmployeeCreateEditDto(
@@ -280,8 +853,13 @@ class EmployeeControllerTest {
     private void updateData() {
         jdbcTemplate.update("ALTER TABLE employees ALTER COLUMN id RESTART WITH 1;");
         jdbcTemplate.update("ALTER TABLE departments ALTER COLUMN id RESTART WITH 1;");
+        jdbcTemplate.update("DELETE FROM department_stats;");
         jdbcTemplate.update("DELETE FROM employees;");
         jdbcTemplate.update("DELETE FROM departments;");
+        jdbcTemplate.update("DELETE FROM tombstones;");
+        departmentService.reloadCache();
+        employeeService.clearCache();
+        entityManagerFactory.getCache().evictAll();
     }
 
     private void loadToken() {
@@ -0,0 +1,29 @@
+package org.javacode.employee_accounting.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Запоминает SQL, сформированный Hibernate (подключается в application-test.yml).
+ * Общий для всего контекста, поэтому тесты очищают его перед использованием.
+ */
+public class SqlRecorder implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+}